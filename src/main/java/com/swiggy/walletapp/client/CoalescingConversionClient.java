@@ -0,0 +1,137 @@
+package com.swiggy.walletapp.client;
+
+import com.swiggy.walletapp.config.ConversionProperties;
+import com.swiggy.walletapp.dto.MoneyConversionRequest;
+import com.swiggy.walletapp.dto.MoneyDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges single conversions issued within {@code maxWait} of each other into one {@code convertMany}
+ * call on the underlying transport. A batch is sent as soon as it reaches {@code maxBatchSize}.
+ */
+public class CoalescingConversionClient implements ConversionClient {
+
+    private static final String METRIC = "conversion.coalescer";
+
+    private final ConversionClient delegate;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final DistributionSummary batchSize;
+    private final Counter sizeTriggered;
+    private final Counter timeTriggered;
+    private final MeterRegistry meterRegistry;
+
+    private final Object lock = new Object();
+    private List<PendingConversion> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public CoalescingConversionClient(ConversionClient delegate, ConversionProperties.Coalescer coalescer, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxBatchSize = coalescer.getMaxBatchSize();
+        this.maxWaitNanos = coalescer.getMaxWait().toNanos();
+        this.meterRegistry = meterRegistry;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "conversion-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSize = DistributionSummary.builder(METRIC + ".batch.size").register(meterRegistry);
+        this.sizeTriggered = Counter.builder(METRIC + ".batches").tag("trigger", "size").register(meterRegistry);
+        this.timeTriggered = Counter.builder(METRIC + ".batches").tag("trigger", "time").register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<MoneyDto> convert(MoneyDto money, String toCurrency) {
+        PendingConversion conversion = new PendingConversion(new MoneyConversionRequest(money, toCurrency), new CompletableFuture<>());
+        List<PendingConversion> fullBatch = null;
+        synchronized (lock) {
+            pending.add(conversion);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = drain();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flushExpired, maxWaitNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            sizeTriggered.increment();
+            dispatch(fullBatch);
+        }
+        return conversion.result();
+    }
+
+    @Override
+    public CompletableFuture<List<MoneyDto>> convertMany(List<MoneyConversionRequest> requests) {
+        return delegate.convertMany(requests);
+    }
+
+    private void flushExpired() {
+        List<PendingConversion> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = drain();
+        }
+        timeTriggered.increment();
+        dispatch(batch);
+    }
+
+    private List<PendingConversion> drain() {
+        List<PendingConversion> batch = pending;
+        pending = new ArrayList<>(maxBatchSize);
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<PendingConversion> batch) {
+        batchSize.record(batch.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<MoneyConversionRequest> requests = batch.stream().map(PendingConversion::request).toList();
+
+        CompletableFuture<List<MoneyDto>> conversions;
+        try {
+            conversions = delegate.convertMany(requests);
+        } catch (RuntimeException e) {
+            conversions = CompletableFuture.failedFuture(e);
+        }
+
+        conversions.whenComplete((results, error) -> {
+            sample.stop(Timer.builder(METRIC + ".batch.latency")
+                    .tag("outcome", error == null ? "success" : "failure")
+                    .register(meterRegistry));
+            for (int i = 0; i < batch.size(); i++) {
+                if (error == null) {
+                    batch.get(i).result().complete(results.get(i));
+                } else {
+                    batch.get(i).result().completeExceptionally(error);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        flushExpired();
+        delegate.close();
+    }
+
+    private record PendingConversion(MoneyConversionRequest request, CompletableFuture<MoneyDto> result) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.swiggy.walletapp.client;
+
+import com.swiggy.walletapp.dto.MoneyConversionRequest;
+import com.swiggy.walletapp.dto.MoneyDto;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface ConversionClient extends AutoCloseable {
+
+    /**
+     * Converts {@code money} into {@code toCurrency} without blocking the caller. Completes exceptionally
+     * with {@link com.swiggy.walletapp.exception.ConversionUnavailableException} when the converter
+     * cannot be reached, so callers can fall back to cached or local rates.
+     */
+    CompletableFuture<MoneyDto> convert(MoneyDto money, String toCurrency);
+
+    /**
+     * Converts a batch of requests, completing with results in request order. Transports without a
+     * batch call fall back to issuing the single conversions concurrently.
+     */
+    default CompletableFuture<List<MoneyDto>> convertMany(List<MoneyConversionRequest> requests) {
+        List<CompletableFuture<MoneyDto>> conversions = requests.stream()
+                .map(request -> convert(request.getFrom(), request.getTo_currency()))
+                .toList();
+        return CompletableFuture.allOf(conversions.toArray(CompletableFuture[]::new))
+                .thenApply(done -> conversions.stream().map(CompletableFuture::join).toList());
+    }
+
+    @Override
+    default void close() {
+    }
+}
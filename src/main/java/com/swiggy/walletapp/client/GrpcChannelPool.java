@@ -0,0 +1,42 @@
+package com.swiggy.walletapp.client;
+
+import io.grpc.ManagedChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class GrpcChannelPool {
+
+    private final List<ManagedChannel> channels;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public GrpcChannelPool(int size, Supplier<ManagedChannel> channelFactory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("gRPC channel pool size must be positive");
+        }
+        this.channels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            channels.add(channelFactory.get());
+        }
+    }
+
+    public ManagedChannel next() {
+        return channels.get(Math.floorMod(next.getAndIncrement(), channels.size()));
+    }
+
+    public int size() {
+        return channels.size();
+    }
+
+    public void shutdown() throws InterruptedException {
+        channels.forEach(ManagedChannel::shutdown);
+        for (ManagedChannel channel : channels) {
+            if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+                channel.shutdownNow();
+            }
+        }
+    }
+}
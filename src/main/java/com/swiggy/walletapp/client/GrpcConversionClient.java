@@ -0,0 +1,97 @@
+package com.swiggy.walletapp.client;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.swiggy.walletapp.config.ConversionProperties;
+import com.swiggy.walletapp.dto.MoneyConversionRequest;
+import com.swiggy.walletapp.dto.MoneyDto;
+import com.swiggy.walletapp.exception.ConversionUnavailableException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import pb.MoneyConverterGrpc;
+import pb.MoneyConverterOuterClass;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@RequiredArgsConstructor
+public class GrpcConversionClient implements ConversionClient {
+
+    private static final Set<Status.Code> UNAVAILABLE_CODES = EnumSet.of(
+            Status.Code.UNAVAILABLE, Status.Code.DEADLINE_EXCEEDED, Status.Code.RESOURCE_EXHAUSTED, Status.Code.CANCELLED);
+
+    private final GrpcChannelPool channelPool;
+    private final ConversionProperties conversionProperties;
+
+    @Override
+    public CompletableFuture<MoneyDto> convert(MoneyDto money, String toCurrency) {
+        return toCompletableFuture(futureStub().convert(toMessage(money, toCurrency)))
+                .thenApply(response -> toDto(response.getConverted()));
+    }
+
+    @Override
+    public CompletableFuture<List<MoneyDto>> convertMany(List<MoneyConversionRequest> requests) {
+        MoneyConverterOuterClass.ConvertManyRequest.Builder batch = MoneyConverterOuterClass.ConvertManyRequest.newBuilder();
+        requests.forEach(request -> batch.addRequests(toMessage(request.getFrom(), request.getTo_currency())));
+
+        return toCompletableFuture(futureStub().convertMany(batch.build()))
+                .thenApply(response -> {
+                    if (response.getResponsesCount() != requests.size()) {
+                        throw new RuntimeException("Invalid response from currency conversion service");
+                    }
+                    return response.getResponsesList().stream()
+                            .map(converted -> toDto(converted.getConverted()))
+                            .toList();
+                });
+    }
+
+    private static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Futures.addCallback(call, new FutureCallback<>() {
+            @Override
+            public void onSuccess(T response) {
+                result.complete(response);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                result.completeExceptionally(translate(t));
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+
+    private MoneyConverterGrpc.MoneyConverterFutureStub futureStub() {
+        return MoneyConverterGrpc.newFutureStub(channelPool.next())
+                .withDeadlineAfter(conversionProperties.getGrpc().getDeadline().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static RuntimeException translate(Throwable t) {
+        if (t instanceof StatusRuntimeException e && UNAVAILABLE_CODES.contains(e.getStatus().getCode())) {
+            return new ConversionUnavailableException("Currency conversion service unavailable", HttpStatus.SERVICE_UNAVAILABLE, e);
+        }
+        return new RuntimeException("Currency conversion failed", t);
+    }
+
+    private static MoneyConverterOuterClass.ConvertRequest toMessage(MoneyDto money, String toCurrency) {
+        MoneyConverterOuterClass.Money from = MoneyConverterOuterClass.Money.newBuilder()
+                .setCurrency(money.getCurrency())
+                .setAmount(money.getAmount())
+                .build();
+        return MoneyConverterOuterClass.ConvertRequest.newBuilder()
+                .setFrom(from)
+                .setToCurrency(toCurrency)
+                .build();
+    }
+
+    private static MoneyDto toDto(MoneyConverterOuterClass.Money money) {
+        return new MoneyDto(money.getCurrency(), money.getAmount());
+    }
+}
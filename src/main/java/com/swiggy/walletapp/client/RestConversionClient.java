@@ -0,0 +1,182 @@
+package com.swiggy.walletapp.client;
+
+import com.swiggy.walletapp.config.ConversionProperties;
+import com.swiggy.walletapp.dto.MoneyConversionRequest;
+import com.swiggy.walletapp.dto.MoneyConversionResponse;
+import com.swiggy.walletapp.dto.MoneyDto;
+import com.swiggy.walletapp.exception.ConversionUnavailableException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class RestConversionClient implements ConversionClient {
+
+    private static final String REQUESTS_METRIC = "conversion.http.client.requests";
+
+    private final RestTemplate restTemplate;
+    private final ConversionProperties conversionProperties;
+    private final Executor conversionExecutor;
+    private final CircuitBreaker circuitBreaker;
+
+    private final Timer succeeded;
+    private final Timer unavailable;
+    private final Timer invalidResponses;
+    private final Timer shortCircuited;
+    private final Timer rejected;
+    private final Counter hedges;
+    private final Counter hedgeWins;
+
+    public RestConversionClient(RestTemplate restTemplate, ConversionProperties conversionProperties, Executor conversionExecutor,
+                                CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.conversionProperties = conversionProperties;
+        this.conversionExecutor = conversionExecutor;
+        this.circuitBreaker = circuitBreaker;
+        this.succeeded = requestTimer(meterRegistry, "success");
+        this.unavailable = requestTimer(meterRegistry, "unavailable");
+        this.invalidResponses = requestTimer(meterRegistry, "invalid_response");
+        this.shortCircuited = requestTimer(meterRegistry, "short_circuited");
+        this.rejected = requestTimer(meterRegistry, "rejected");
+        this.hedges = Counter.builder("conversion.http.client.hedges").register(meterRegistry);
+        this.hedgeWins = Counter.builder("conversion.http.client.hedges.won").register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<MoneyDto> convert(MoneyDto money, String toCurrency) {
+        return submit(() -> post(money, toCurrency));
+    }
+
+    @Override
+    public CompletableFuture<List<MoneyDto>> convertMany(List<MoneyConversionRequest> requests) {
+        if (conversionProperties.getRest().getBatchUrl() == null) {
+            return ConversionClient.super.convertMany(requests);
+        }
+        return submit(() -> postBatch(requests));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        ConversionProperties.Hedge hedge = conversionProperties.getRest().getHedge();
+        if (!hedge.isEnabled()) {
+            return attempt(call);
+        }
+
+        // Hedging only targets slow calls: a second attempt is fired if the first is still outstanding
+        // after the delay, and the first success wins. A failed first attempt is not retried.
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        attempt(call).whenComplete((value, error) -> complete(result, outstanding, value, error));
+        CompletableFuture.delayedExecutor(hedge.getDelay().toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone() || outstanding.getAndUpdate(n -> n == 0 ? 0 : n + 1) == 0) {
+                return;
+            }
+            hedges.increment();
+            attempt(call).whenComplete((value, error) -> {
+                if (error == null && result.complete(value)) {
+                    hedgeWins.increment();
+                    return;
+                }
+                complete(result, outstanding, value, error);
+            });
+        });
+        return result;
+    }
+
+    private static <T> void complete(CompletableFuture<T> result, AtomicInteger outstanding, T value, Throwable error) {
+        if (error == null) {
+            result.complete(value);
+        } else if (outstanding.decrementAndGet() == 0) {
+            result.completeExceptionally(error);
+        }
+    }
+
+    private <T> CompletableFuture<T> attempt(Supplier<T> call) {
+        long start = System.nanoTime();
+        if (!circuitBreaker.tryAcquirePermission()) {
+            shortCircuited.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return CompletableFuture.failedFuture(
+                    new ConversionUnavailableException("Currency conversion circuit is open", HttpStatus.SERVICE_UNAVAILABLE));
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> execute(call), conversionExecutor);
+        } catch (TaskRejectedException e) {
+            circuitBreaker.releasePermission();
+            rejected.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return CompletableFuture.failedFuture(
+                    new ConversionUnavailableException("Currency conversion queue is full", HttpStatus.SERVICE_UNAVAILABLE, e));
+        }
+    }
+
+    private <T> T execute(Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            T value = call.get();
+            long elapsed = System.nanoTime() - start;
+            circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            succeeded.record(elapsed, TimeUnit.NANOSECONDS);
+            return value;
+        } catch (RuntimeException e) {
+            long elapsed = System.nanoTime() - start;
+            circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, e);
+            (e instanceof ConversionUnavailableException ? unavailable : invalidResponses).record(elapsed, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private MoneyDto post(MoneyDto money, String toCurrency) {
+        MoneyConversionRequest request = new MoneyConversionRequest(money, toCurrency);
+
+        ResponseEntity<MoneyConversionResponse> response;
+        try {
+            response = restTemplate.postForEntity(conversionProperties.getUrl(), request, MoneyConversionResponse.class);
+        } catch (RestClientException e) {
+            throw new ConversionUnavailableException("Currency conversion service unavailable", HttpStatus.SERVICE_UNAVAILABLE, e);
+        }
+
+        MoneyConversionResponse responseBody = response.getBody();
+        if (responseBody == null) {
+            throw new RuntimeException("Invalid response from currency conversion service");
+        }
+
+        return new MoneyDto(responseBody.getConverted().getCurrency(), responseBody.getConverted().getAmount());
+    }
+
+    private List<MoneyDto> postBatch(List<MoneyConversionRequest> requests) {
+        ResponseEntity<MoneyConversionResponse[]> response;
+        try {
+            response = restTemplate.postForEntity(conversionProperties.getRest().getBatchUrl(), requests, MoneyConversionResponse[].class);
+        } catch (RestClientException e) {
+            throw new ConversionUnavailableException("Currency conversion service unavailable", HttpStatus.SERVICE_UNAVAILABLE, e);
+        }
+
+        MoneyConversionResponse[] responseBody = response.getBody();
+        if (responseBody == null || responseBody.length != requests.size()) {
+            throw new RuntimeException("Invalid response from currency conversion service");
+        }
+
+        return Arrays.stream(responseBody)
+                .map(converted -> new MoneyDto(converted.getConverted().getCurrency(), converted.getConverted().getAmount()))
+                .toList();
+    }
+
+    private static Timer requestTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(REQUESTS_METRIC)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
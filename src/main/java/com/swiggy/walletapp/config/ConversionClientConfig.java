@@ -0,0 +1,45 @@
+package com.swiggy.walletapp.config;
+
+import com.swiggy.walletapp.client.CoalescingConversionClient;
+import com.swiggy.walletapp.client.ConversionClient;
+import com.swiggy.walletapp.client.GrpcChannelPool;
+import com.swiggy.walletapp.client.GrpcConversionClient;
+import com.swiggy.walletapp.client.RestConversionClient;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+@Slf4j
+@Configuration
+public class ConversionClientConfig {
+
+    @Bean
+    public ConversionClient conversionClient(ConversionProperties conversionProperties,
+                                             RestTemplate conversionRestTemplate,
+                                             ThreadPoolTaskExecutor conversionExecutor,
+                                             CircuitBreaker conversionCircuitBreaker,
+                                             ObjectProvider<GrpcChannelPool> grpcChannelPool,
+                                             MeterRegistry meterRegistry) {
+        ConversionClient transport = switch (conversionProperties.getTransport()) {
+            case REST -> new RestConversionClient(conversionRestTemplate, conversionProperties, conversionExecutor,
+                    conversionCircuitBreaker, meterRegistry);
+            case GRPC -> new GrpcConversionClient(grpcChannelPool.getObject(), conversionProperties);
+        };
+
+        if (!conversionProperties.getCoalescer().isEnabled()) {
+            return transport;
+        }
+        // Without a batch call the REST client answers ConvertMany by fanning out, so coalescing would only add the
+        // wait and tie unrelated conversions to each other's failures.
+        if (conversionProperties.getTransport() == ConversionProperties.Transport.REST && conversionProperties.getRest().getBatchUrl() == null) {
+            log.warn("conversion.coalescer.enabled is ignored: the REST transport has no conversion.rest.batch-url");
+            return transport;
+        }
+        return new CoalescingConversionClient(transport, conversionProperties.getCoalescer(), meterRegistry);
+    }
+}
@@ -0,0 +1,82 @@
+package com.swiggy.walletapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "conversion")
+public class ConversionProperties {
+
+    private Transport transport = Transport.REST;
+
+    private String url = "http://host.docker.internal:8085/convertedMoney";
+
+    private final Cache cache = new Cache();
+    private final Rest rest = new Rest();
+    private final Grpc grpc = new Grpc();
+    private final Coalescer coalescer = new Coalescer();
+
+    public enum Transport {
+        REST, GRPC
+    }
+
+    @Data
+    public static class Cache {
+        private Duration ttl = Duration.ofMinutes(5);
+        private Duration refreshInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Rest {
+        private int maxConcurrency = 32;
+        private int queueCapacity = 1000;
+        private String batchUrl;
+        private int maxConnections = 32;
+        private Duration connectTimeout = Duration.ofMillis(500);
+        private Duration readTimeout = Duration.ofSeconds(2);
+        private Duration poolTimeout = Duration.ofMillis(200);
+        private Duration keepAlive = Duration.ofSeconds(30);
+        private Duration idleTimeout = Duration.ofMinutes(1);
+        private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+        private final Hedge hedge = new Hedge();
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 100;
+        private Duration slowCallDuration = Duration.ofSeconds(1);
+        private int slidingWindowSize = 50;
+        private int minimumNumberOfCalls = 20;
+        private Duration waitInOpenState = Duration.ofSeconds(10);
+        private int permittedCallsInHalfOpenState = 5;
+    }
+
+    @Data
+    public static class Hedge {
+        private boolean enabled = false;
+        private Duration delay = Duration.ofMillis(150);
+    }
+
+    @Data
+    public static class Grpc {
+        private String host = "localhost";
+        private int port = 50051;
+        private int poolSize = 4;
+        private Duration deadline = Duration.ofSeconds(2);
+        // grpc-java and grpc-go servers reject pings more often than every 5 minutes by default, and any ping on an
+        // idle connection, with a too_many_pings GOAWAY. Lower these only together with the server's ping policy.
+        private Duration keepAliveTime = Duration.ofMinutes(5);
+        private Duration keepAliveTimeout = Duration.ofSeconds(10);
+        private boolean keepAliveWithoutCalls = false;
+    }
+
+    @Data
+    public static class Coalescer {
+        private boolean enabled = false;
+        private int maxBatchSize = 64;
+        private Duration maxWait = Duration.ofMillis(2);
+    }
+}
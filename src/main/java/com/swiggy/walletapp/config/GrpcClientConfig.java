@@ -1,23 +1,25 @@
 package com.swiggy.walletapp.config;
 
-import io.grpc.ManagedChannel;
+import com.swiggy.walletapp.client.GrpcChannelPool;
 import io.grpc.ManagedChannelBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import pb.MoneyConverterGrpc;
+
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@ConditionalOnProperty(name = "conversion.transport", havingValue = "grpc")
 public class GrpcClientConfig {
 
-    @Bean
-    public ManagedChannel grpcChannel() {
-        return ManagedChannelBuilder.forAddress("localhost", 50051)
+    @Bean(destroyMethod = "shutdown")
+    public GrpcChannelPool grpcChannelPool(ConversionProperties conversionProperties) {
+        ConversionProperties.Grpc grpc = conversionProperties.getGrpc();
+        return new GrpcChannelPool(grpc.getPoolSize(), () -> ManagedChannelBuilder.forAddress(grpc.getHost(), grpc.getPort())
                 .usePlaintext()
-                .build();
-    }
-
-    @Bean
-    public MoneyConverterGrpc.MoneyConverterBlockingStub moneyConverterStub(ManagedChannel grpcChannel) {
-        return MoneyConverterGrpc.newBlockingStub(grpcChannel);
+                .keepAliveTime(grpc.getKeepAliveTime().toMillis(), TimeUnit.MILLISECONDS)
+                .keepAliveTimeout(grpc.getKeepAliveTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .keepAliveWithoutCalls(grpc.isKeepAliveWithoutCalls())
+                .build());
     }
 }
@@ -1,14 +1,78 @@
 package com.swiggy.walletapp.config;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class HttpClientConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate conversionRestTemplate(ConversionProperties conversionProperties) {
+        ConversionProperties.Rest rest = conversionProperties.getRest();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(rest.getMaxConnections())
+                .setMaxConnPerRoute(rest.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(rest.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(rest.getReadTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(rest.getKeepAlive()))
+                .evictIdleConnections(TimeValue.of(rest.getIdleTimeout()))
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(rest.getPoolTimeout()))
+                        .setResponseTimeout(Timeout.of(rest.getReadTimeout()))
+                        .build())
+                .build();
+
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor conversionExecutor(ConversionProperties conversionProperties) {
+        ConversionProperties.Rest rest = conversionProperties.getRest();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(rest.getMaxConcurrency());
+        executor.setMaxPoolSize(rest.getMaxConcurrency());
+        executor.setQueueCapacity(rest.getQueueCapacity());
+        executor.setThreadNamePrefix("conversion-");
+        return executor;
+    }
+
+    @Bean
+    public CircuitBreaker conversionCircuitBreaker(ConversionProperties conversionProperties, MeterRegistry meterRegistry) {
+        ConversionProperties.CircuitBreaker settings = conversionProperties.getRest().getCircuitBreaker();
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("conversion", CircuitBreakerConfig.custom()
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(settings.getSlowCallDuration())
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(settings.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(settings.getPermittedCallsInHalfOpenState())
+                .build());
+        Gauge.builder("conversion.http.circuit.state", circuitBreaker, breaker -> breaker.getState().getOrder())
+                .description("0 closed, 1 open, 2 half open")
+                .register(meterRegistry);
+        return circuitBreaker;
     }
 }
@@ -0,0 +1,15 @@
+package com.swiggy.walletapp.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterFilter walletTagCardinalityLimit(WalletProperties walletProperties) {
+        return MeterFilter.maximumAllowableTags("wallet.concurrency", "wallet",
+                walletProperties.getRetry().getMaxTrackedWallets(), MeterFilter.deny());
+    }
+}
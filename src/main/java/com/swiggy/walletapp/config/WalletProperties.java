@@ -0,0 +1,92 @@
+package com.swiggy.walletapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "wallet")
+public class WalletProperties {
+
+    private final Retry retry = new Retry();
+    private final Lock lock = new Lock();
+    private final Sharding sharding = new Sharding();
+    private final Cache cache = new Cache();
+    private final EntityCache entityCache = new EntityCache();
+    private final Bulk bulk = new Bulk();
+    private final GroupCommit groupCommit = new GroupCommit();
+    private final Async async = new Async();
+    private final Idempotency idempotency = new Idempotency();
+
+    @Data
+    public static class Retry {
+        private int maxAttempts = 5;
+        private Duration initialBackoff = Duration.ofMillis(10);
+        private Duration maxBackoff = Duration.ofMillis(200);
+        private int maxTrackedWallets = 1000;
+    }
+
+    @Data
+    public static class Lock {
+        private boolean enabled = true;
+        private int stripes = 64;
+        private Duration acquireTimeout = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Sharding {
+        private int shards = 16;
+        private List<Long> hotWallets = new ArrayList<>();
+        private Duration shardCountTtl = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = false;
+        private long maxUsers = 100_000;
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class EntityCache {
+        private boolean enabled = true;
+        private long maxUsers = 10_000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Bulk {
+        private int maxItems = 10_000;
+        private int chunkSize = 50;
+    }
+
+    @Data
+    public static class GroupCommit {
+        private boolean enabled = false;
+        private int maxBatchSize = 50;
+        private Duration maxWait = Duration.ofMillis(2);
+        private int queueCapacity = 10_000;
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Async {
+        private int partitions = 8;
+        private int queueCapacity = 10_000;
+        private Duration maxWait = Duration.ofSeconds(30);
+        private Duration claimTimeout = Duration.ofMinutes(1);
+        private Duration sweepInterval = Duration.ofSeconds(10);
+        private Duration retryBackoff = Duration.ofSeconds(1);
+        private int maxAttempts = 5;
+    }
+
+    @Data
+    public static class Idempotency {
+        private long cacheSize = 100_000;
+        private Duration retention = Duration.ofHours(24);
+        private Duration purgeInterval = Duration.ofHours(1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.swiggy.walletapp.controller;
+
+import com.swiggy.walletapp.dto.BulkTransactionDto;
+import com.swiggy.walletapp.dto.BulkTransactionResultDto;
+import com.swiggy.walletapp.service.BulkTransactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@RestController
+@Tag(name = "BulkTransactionController", description = "APIs for submitting transactions in bulk")
+@RequestMapping("/users/{userId}/transactions")
+public class BulkTransactionController {
+
+    private final BulkTransactionService bulkTransactionService;
+
+    @Operation(summary = "Create transactions in bulk",
+            description = "Apply deposits, withdrawals and transfers across the wallets of a specific user. Each item succeeds or fails on its own, and the results are returned in request order")
+    @Parameter(name = "transactions", description = "The transactions to apply, each naming the wallet it belongs to")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Processed the batch, see the status of each result",
+                    content = {@Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = BulkTransactionResultDto.class)))}),
+            @ApiResponse(responseCode = "400",
+                    description = "Empty or oversized batch")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<BulkTransactionResultDto>> createTransactions(@PathVariable Long userId, @RequestBody List<BulkTransactionDto> transactions) {
+        List<BulkTransactionResultDto> results = bulkTransactionService.createTransactions(userId, transactions);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+}
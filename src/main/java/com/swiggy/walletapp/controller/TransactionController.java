@@ -1,8 +1,13 @@
 package com.swiggy.walletapp.controller;
 
 import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.dto.TransactionPageDto;
+import com.swiggy.walletapp.dto.TransactionRequestDto;
 import com.swiggy.walletapp.dto.TransactionResponseDto;
 import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.service.TransactionExportService;
+import com.swiggy.walletapp.service.TransactionIdempotencyService;
+import com.swiggy.walletapp.service.TransactionRequestService;
 import com.swiggy.walletapp.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,11 +17,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.util.List;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 @RequiredArgsConstructor
 @RestController
@@ -24,36 +35,117 @@ import java.util.List;
 @RequestMapping("/users/{userId}/wallets/{walletId}/transactions")
 public class TransactionController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
+    private final TransactionRequestService transactionRequestService;
+    private final TransactionIdempotencyService transactionIdempotencyService;
 
-    @Operation(summary = "Retrieve all transactions",
-            description = "Retrieve all the transactions for a specific user and wallet")
+    @Operation(summary = "Retrieve transactions",
+            description = "Retrieve one page of the transactions of a specific user and wallet. Pass the returned nextCursor as after to fetch the following page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     description = "Successfully retrieved the transactions",
                     content = {@Content(mediaType = "application/json",
-                            schema = @Schema(implementation = TransactionResponseDto.class))})
+                            schema = @Schema(implementation = TransactionPageDto.class))}),
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid limit or cursor")
     })
     @GetMapping
-    public ResponseEntity<List<TransactionResponseDto>> getTransactions(@PathVariable Long userId, @PathVariable Long walletId, @RequestParam(required = false) TransactionType transactionType) {
-        List<TransactionResponseDto> transactions = transactionService.getTransactions(userId, walletId, transactionType);
+    public ResponseEntity<TransactionPageDto> getTransactions(@PathVariable Long userId, @PathVariable Long walletId,
+                                                              @RequestParam(required = false) TransactionType transactionType,
+                                                              @RequestParam(defaultValue = "50") int limit,
+                                                              @RequestParam(required = false) String after,
+                                                              @RequestParam(defaultValue = "DESC") Sort.Direction order) {
+        TransactionPageDto transactions = transactionService.getTransactions(userId, walletId, transactionType, limit, after, order);
         return new ResponseEntity<>(transactions, HttpStatus.OK);
     }
 
+    @Operation(summary = "Export all transactions",
+            description = "Stream the whole transaction history of a specific user and wallet, oldest first, as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Streaming the transactions",
+                    content = {@Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = TransactionResponseDto.class))})
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable Long userId, @PathVariable Long walletId) {
+        StreamingResponseBody body = transactionExportService.exportTransactions(userId, walletId);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @Operation(summary = "Create a new transaction",
-            description = "Create a new transaction for a specific user and wallet")
+            description = "Create a new transaction for a specific user and wallet. Retries that send the same Idempotency-Key " +
+                    "get the original response back instead of creating the transaction again")
     @Parameter(name = "transactionDto", description = "The Dto containing information for creating a new transaction")
+    @Parameter(name = IDEMPOTENCY_KEY_HEADER, description = "A client-chosen key, unique per transaction, that makes retries safe")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201",
                     description = "Successfully created a new transaction",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = TransactionDto.class))}),
             @ApiResponse(responseCode = "400",
-                    description = "Invalid input for creating a transaction")
+                    description = "Invalid input for creating a transaction, or an Idempotency-Key reused for a different one"),
+            @ApiResponse(responseCode = "409",
+                    description = "The wallet is busy, retry with the same Idempotency-Key"),
+            @ApiResponse(responseCode = "504",
+                    description = "The transaction may or may not have been applied, retry with the same Idempotency-Key")
     })
     @PostMapping
-    public ResponseEntity<String> createTransaction(@PathVariable Long userId, @PathVariable Long walletId, @RequestBody TransactionDto transactionDto) {
-        transactionService.createTransaction(userId, walletId, transactionDto);
+    public ResponseEntity<String> createTransaction(@PathVariable Long userId, @PathVariable Long walletId,
+                                                    @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                    @RequestBody TransactionDto transactionDto) {
+        if (idempotencyKey == null) {
+            transactionService.createTransaction(userId, walletId, transactionDto);
+        } else if (transactionIdempotencyService.createTransaction(userId, walletId, idempotencyKey, transactionDto)) {
+            return ResponseEntity.status(HttpStatus.CREATED).header(IDEMPOTENT_REPLAYED_HEADER, "true").body("Transaction successful");
+        }
         return new ResponseEntity<>("Transaction successful", HttpStatus.CREATED);
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Submit a transaction for async processing",
+            description = "Validate and store a transaction for a specific user and wallet, and apply it in the background. " +
+                    "Transactions of one wallet are applied in the order they were accepted, unless the server that accepted " +
+                    "one stops before applying it")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202",
+                    description = "Transaction accepted, its status is at the Location header",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TransactionRequestDto.class))}),
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid input for creating a transaction"),
+            @ApiResponse(responseCode = "409",
+                    description = "Too many transactions waiting for this wallet")
+    })
+    @PostMapping("/async")
+    public ResponseEntity<TransactionRequestDto> submitTransaction(@PathVariable Long userId, @PathVariable Long walletId,
+                                                                   @RequestBody TransactionDto transactionDto) {
+        TransactionRequestDto request = transactionRequestService.submit(userId, walletId, transactionDto);
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/users/{userId}/wallets/{walletId}/transactions/requests/{requestId}")
+                .buildAndExpand(userId, walletId, request.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(request);
+    }
+
+    @Operation(summary = "Retrieve the status of an async transaction",
+            description = "Return the status of a submitted transaction. With wait, hold the response until the transaction " +
+                    "is completed or failed, or until wait (an ISO-8601 duration, capped by the server) has passed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Successfully retrieved the status",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TransactionRequestDto.class))}),
+            @ApiResponse(responseCode = "404",
+                    description = "No such transaction for this user and wallet")
+    })
+    @GetMapping("/requests/{requestId}")
+    public CompletableFuture<ResponseEntity<TransactionRequestDto>> getTransactionRequest(@PathVariable Long userId, @PathVariable Long walletId,
+                                                                                          @PathVariable Long requestId,
+                                                                                          @RequestParam(defaultValue = "PT0S") Duration wait) {
+        return transactionRequestService.awaitRequest(userId, walletId, requestId, wait).thenApply(ResponseEntity::ok);
+    }
+}
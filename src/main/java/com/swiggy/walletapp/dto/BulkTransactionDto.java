@@ -0,0 +1,32 @@
+package com.swiggy.walletapp.dto;
+
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransactionDto {
+    private Long walletId;
+    private TransactionType transactionType;
+    private long amount;
+    private Currency currency;
+    private Long recipientWalletId;
+
+    public BulkTransactionDto(Long walletId, TransactionType transactionType, long amount, Long recipientWalletId) {
+        this.walletId = walletId;
+        this.transactionType = transactionType;
+        this.amount = amount;
+        this.recipientWalletId = recipientWalletId;
+    }
+
+    public BulkTransactionDto(Long walletId, TransactionType transactionType, long amount, Currency currency) {
+        this.walletId = walletId;
+        this.transactionType = transactionType;
+        this.amount = amount;
+        this.currency = currency;
+    }
+}
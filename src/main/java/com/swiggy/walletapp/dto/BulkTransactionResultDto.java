@@ -0,0 +1,28 @@
+package com.swiggy.walletapp.dto;
+
+import com.swiggy.walletapp.enums.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a bulk submission, matched to the request by its position in the submitted array. The
+ * amount is what was credited for deposits and transfers, or debited for withdrawals, in that wallet's currency.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransactionResultDto {
+    private int index;
+    private TransactionStatus status;
+    private Long amount;
+    private String message;
+
+    public static BulkTransactionResultDto completed(int index, long amount) {
+        return new BulkTransactionResultDto(index, TransactionStatus.COMPLETED, amount, null);
+    }
+
+    public static BulkTransactionResultDto failed(int index, String message) {
+        return new BulkTransactionResultDto(index, TransactionStatus.FAILED, null, message);
+    }
+}
@@ -11,17 +11,17 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class TransactionDto {
     private TransactionType transactionType;
-    private double amount;
+    private long amount;
     private Currency currency;
     private Long recipientWalletId;
 
-    public TransactionDto(TransactionType transactionType, double amount, Long recipientWalletId) {
+    public TransactionDto(TransactionType transactionType, long amount, Long recipientWalletId) {
         this.transactionType = transactionType;
         this.amount = amount;
         this.recipientWalletId = recipientWalletId;
     }
 
-    public TransactionDto(TransactionType transactionType, double amount, Currency currency) {
+    public TransactionDto(TransactionType transactionType, long amount, Currency currency) {
         this.transactionType = transactionType;
         this.amount = amount;
         this.currency = currency;
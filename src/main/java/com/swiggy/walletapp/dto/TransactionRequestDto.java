@@ -0,0 +1,28 @@
+package com.swiggy.walletapp.dto;
+
+import com.swiggy.walletapp.entity.TransactionRequest;
+import com.swiggy.walletapp.enums.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRequestDto {
+    private Long id;
+    private TransactionStatus status;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    public TransactionRequestDto(TransactionRequest request) {
+        this.id = request.getId();
+        this.status = request.getStatus();
+        this.message = request.getFailureMessage();
+        this.createdAt = request.getCreatedAt();
+        this.completedAt = request.getCompletedAt();
+    }
+}
@@ -11,7 +11,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class WalletResponseDto {
     private Long walletId;
-    private double balance;
+    private long balance;
     private Currency currency;
 
     public WalletResponseDto(Wallet wallet) {
@@ -19,4 +19,10 @@ public class WalletResponseDto {
         this.balance = wallet.getBalance();
         this.currency = wallet.getCurrency();
     }
+
+    public WalletResponseDto(Wallet wallet, long balance) {
+        this.walletId = wallet.getId();
+        this.balance = balance;
+        this.currency = wallet.getCurrency();
+    }
 }
@@ -0,0 +1,90 @@
+package com.swiggy.walletapp.entity;
+
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.LedgerEntryType;
+import com.swiggy.walletapp.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * One leg of a money movement. Entries are append-only. A transfer writes a debit on the sender wallet and a credit on
+ * the recipient wallet, each in that wallet's currency. Deposits and withdrawals move money across the system
+ * boundary, so they have a single leg with no counterparty wallet.
+ * <p>
+ * This is not a double-entry ledger: there is no system or external account, so the other side of a deposit or
+ * withdrawal is implied by its transaction type and the entries of all wallets do not sum to zero. The invariant that
+ * does hold is per wallet, for entries the application writes: their credits minus their debits equal the change in
+ * the wallet's balance since the ledger was introduced. Reconciling against the outside world means summing deposit
+ * and withdrawal legs per currency.
+ * <p>
+ * Entries backfilled from the legacy transaction tables are outside that invariant. The legacy tables recorded a
+ * transfer only at its recipient-side amount, so the backfilled debit leg of a cross-currency transfer carries that
+ * amount and currency, and when the sender had no wallet in it, is booked against the sender's lowest-id wallet in
+ * another currency. Such legs are the ones whose currency differs from their wallet's.
+ * <p>
+ * There is no per-wallet sequence number. Credits to a sharded wallet go through its shard rows precisely so that
+ * they do not serialize on the wallet row, and a per-wallet counter would have to be taken under that lock.
+ * <p>
+ * Ids come from a pooled sequence, so each instance hands them out from its own block and do not follow commit order
+ * across instances. History is therefore ordered by timestamp, kept to the microsecond the database stores, with ids
+ * only breaking exact ties. Timestamps are taken after the write has locked the wallet row, so for a wallet written
+ * under that lock they follow commit order. Credits through a sharded wallet's shard rows skip that lock and may
+ * commit in a different order than their timestamps, within the length of one transaction.
+ * <p>
+ * History pages are keyset range scans over {@code (wallet_id, timestamp, id)}, or
+ * {@code (wallet_id, transaction_type, timestamp, id)} when filtered by type. Both legs of a transfer are stored, so
+ * nothing reads entries by counterparty and {@code counterparty_wallet_id} is left unindexed.
+ */
+@Getter
+@Entity
+@Table(name = "ledger_entry",
+        indexes = {
+                @Index(name = "ledger_entry_wallet_timestamp_idx", columnList = "wallet_id, timestamp, id"),
+                @Index(name = "ledger_entry_wallet_type_timestamp_idx", columnList = "wallet_id, transaction_type, timestamp, id")
+        })
+@NoArgsConstructor
+public class LedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", sequenceName = "ledger_entry_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false)
+    private LedgerEntryType entryType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionType transactionType;
+
+    private long amount;
+
+    @Enumerated(EnumType.STRING)
+    private Currency currency;
+
+    @Column(name = "counterparty_wallet_id")
+    private Long counterpartyWalletId;
+
+    private LocalDateTime timestamp;
+
+    public LedgerEntry(Wallet wallet, LedgerEntryType entryType, TransactionType transactionType, long amount, Long counterpartyWalletId) {
+        this.walletId = wallet.getId();
+        this.entryType = entryType;
+        this.transactionType = transactionType;
+        this.amount = amount;
+        this.currency = wallet.getCurrency();
+        this.counterpartyWalletId = counterpartyWalletId;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,29 @@
+package com.swiggy.walletapp.entity;
+
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.LedgerEntryType;
+import com.swiggy.walletapp.enums.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only columns of a {@link LedgerEntry}. History queries return this closed projection, so Spring Data selects
+ * just these columns as a tuple and nothing is hydrated into, or tracked by, the persistence context.
+ */
+public interface LedgerEntryView {
+    Long getId();
+
+    Long getWalletId();
+
+    LedgerEntryType getEntryType();
+
+    TransactionType getTransactionType();
+
+    long getAmount();
+
+    Currency getCurrency();
+
+    Long getCounterpartyWalletId();
+
+    LocalDateTime getTimestamp();
+}
@@ -0,0 +1,125 @@
+package com.swiggy.walletapp.entity;
+
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.TransactionStatus;
+import com.swiggy.walletapp.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transaction accepted in async mode. It is stored as {@code PENDING} before the client is answered. Its status is
+ * changed in the same database transaction that moves the money, so a request is applied at most once, even when it is
+ * picked up again after a restart.
+ * <p>
+ * A pending request is claimed by one instance until {@code claimedUntil}. Claiming it again bumps the version, so a
+ * previous owner that is still working on it fails to record its outcome and rolls its money movement back.
+ */
+@Getter
+@Entity
+@Table(name = "transaction_request", indexes = @Index(name = "transaction_request_status_idx", columnList = "status, claimed_until"))
+@NoArgsConstructor
+public class TransactionRequest {
+    public static final int MAX_FAILURE_MESSAGE_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_request_seq")
+    @SequenceGenerator(name = "transaction_request_seq", sequenceName = "transaction_request_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionType transactionType;
+
+    private long amount;
+
+    @Enumerated(EnumType.STRING)
+    private Currency currency;
+
+    @Column(name = "recipient_wallet_id")
+    private Long recipientWalletId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionStatus status;
+
+    @Column(name = "failure_message")
+    private String failureMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "claimed_by")
+    private String claimedBy;
+
+    @Column(name = "claimed_until", nullable = false)
+    private LocalDateTime claimedUntil;
+
+    private int attempts;
+
+    @Version
+    private Long version;
+
+    public TransactionRequest(Long userId, Long walletId, TransactionDto transactionDto) {
+        this.userId = userId;
+        this.walletId = walletId;
+        this.transactionType = transactionDto.getTransactionType();
+        this.amount = transactionDto.getAmount();
+        this.currency = transactionDto.getCurrency();
+        this.recipientWalletId = transactionDto.getRecipientWalletId();
+        this.status = TransactionStatus.PENDING;
+    }
+
+    public TransactionDto toTransactionDto() {
+        return new TransactionDto(transactionType, amount, currency, recipientWalletId);
+    }
+
+    public boolean isPending() {
+        return status == TransactionStatus.PENDING;
+    }
+
+    public boolean isClaimedBy(String owner) {
+        return owner.equals(claimedBy);
+    }
+
+    public void claim(String owner, LocalDateTime until) {
+        this.claimedBy = owner;
+        this.claimedUntil = until;
+        this.attempts++;
+    }
+
+    public void complete() {
+        this.status = TransactionStatus.COMPLETED;
+        this.completedAt = LocalDateTime.now();
+    }
+
+    public void fail(String failureMessage) {
+        this.status = TransactionStatus.FAILED;
+        this.failureMessage = failureMessage(failureMessage);
+        this.completedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Cuts a message down to what the {@code failure_message} column holds.
+     */
+    public static String failureMessage(String message) {
+        return message == null || message.length() <= MAX_FAILURE_MESSAGE_LENGTH ? message : message.substring(0, MAX_FAILURE_MESSAGE_LENGTH);
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -12,20 +12,27 @@ import org.springframework.http.HttpStatus;
 
 @Getter
 @Entity
-@Table(name = "wallet")
+@Table(name = "wallet", indexes = @Index(name = "wallet_user_id_idx", columnList = "user_id"))
 @RequiredArgsConstructor
 @EqualsAndHashCode
 public class Wallet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_seq")
+    @SequenceGenerator(name = "wallet_seq", sequenceName = "wallet_seq", allocationSize = 50)
     private Long id;
 
-    private double balance;
+    private long balance;
+
+    @Version
+    private Long version;
+
+    @Column(name = "shard_count")
+    private int shardCount;
 
     @Enumerated(EnumType.STRING)
     private Currency currency;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private User user;
 
@@ -35,34 +42,54 @@ public class Wallet {
         this.currency = currency;
     }
 
-    public Wallet(double balance, User user, Currency currency) {
+    public Wallet(long balance, User user, Currency currency) {
         this.balance = balance;
         this.user = user;
         this.currency = currency;
     }
 
-    public void deposit(double amount) {
+    public static void validateDepositAmount(long amount) {
         if (amount <= 0) {
             throw new InvalidAmountException("Deposit amount must be positive", HttpStatus.BAD_REQUEST);
         }
-        this.balance += amount;
     }
 
-    public void withdraw(double amount) {
+    public static void validateWithdrawalAmount(long amount) {
         if (amount <= 0) {
             throw new InvalidAmountException("Withdrawal amount must be positive", HttpStatus.BAD_REQUEST);
         }
+    }
+
+    public void deposit(long amount) {
+        validateDepositAmount(amount);
+        this.balance += amount;
+    }
+
+    public void withdraw(long amount) {
+        validateWithdrawalAmount(amount);
         if (this.balance < amount) {
             throw new InsufficientFundsException("Insufficient funds", HttpStatus.BAD_REQUEST);
         }
         this.balance -= amount;
     }
 
-    public boolean checkBalance(double balance) {
+    public boolean isSharded() {
+        return shardCount > 0;
+    }
+
+    public void enableSharding(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public void disableSharding() {
+        this.shardCount = 0;
+    }
+
+    public boolean checkBalance(long balance) {
         return this.balance == balance;
     }
 
-    public boolean isOwnedBy(User user) {
-        return this.user.equals(user);
+    public boolean isOwnedBy(Long userId) {
+        return this.user != null && this.user.getId().equals(userId);
     }
 }
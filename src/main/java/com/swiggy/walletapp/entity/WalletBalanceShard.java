@@ -0,0 +1,31 @@
+package com.swiggy.walletapp.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Entity
+@Table(name = "wallet_balance_shard",
+        uniqueConstraints = @UniqueConstraint(name = "wallet_balance_shard_wallet_shard_uk", columnNames = {"wallet_id", "shard_index"}))
+@NoArgsConstructor
+public class WalletBalanceShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_balance_shard_seq")
+    @SequenceGenerator(name = "wallet_balance_shard_seq", sequenceName = "wallet_balance_shard_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "shard_index", nullable = false)
+    private int shardIndex;
+
+    private long balance;
+
+    public WalletBalanceShard(Long walletId, int shardIndex) {
+        this.walletId = walletId;
+        this.shardIndex = shardIndex;
+        this.balance = 0;
+    }
+}
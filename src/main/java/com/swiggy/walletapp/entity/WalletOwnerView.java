@@ -0,0 +1,14 @@
+package com.swiggy.walletapp.entity;
+
+import com.swiggy.walletapp.enums.Currency;
+
+/**
+ * Owner and currency of a {@link Wallet}, enough to validate and convert a transaction without loading the wallet.
+ */
+public interface WalletOwnerView {
+    Long getId();
+
+    Long getUserId();
+
+    Currency getCurrency();
+}
@@ -1,19 +1,78 @@
 package com.swiggy.walletapp.enums;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts are carried as {@code long} minor units (paise, cents) of the currency. Conversion between currencies is
+ * exact integer arithmetic with a single rounding step in the target currency's {@link RoundingMode}.
+ */
 public enum Currency {
-    INR(1.0), USD(83.0), EUR(90.0);
+    INR(1, 2, RoundingMode.HALF_EVEN),
+    USD(83, 2, RoundingMode.HALF_EVEN),
+    EUR(90, 2, RoundingMode.HALF_EVEN);
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
 
-    private final double conversionRate;
+    private final long conversionRate;
+    private final int fractionDigits;
+    private final RoundingMode roundingMode;
 
-    Currency(double conversionRate){
+    Currency(long conversionRate, int fractionDigits, RoundingMode roundingMode){
         this.conversionRate = conversionRate;
+        this.fractionDigits = fractionDigits;
+        this.roundingMode = roundingMode;
     }
 
-    public double getConversionRate(){
+    public long getConversionRate(){
         return this.conversionRate;
     }
 
-    public double convertTo(Currency currency, double amount){
-        return amount * this.conversionRate / currency.getConversionRate();
+    public int getFractionDigits() {
+        return fractionDigits;
+    }
+
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    public long convertTo(Currency currency, long amount){
+        long dividend = Math.multiplyExact(Math.multiplyExact(amount, this.conversionRate), POWERS_OF_TEN[currency.fractionDigits]);
+        long divisor = currency.conversionRate * POWERS_OF_TEN[this.fractionDigits];
+        return divide(dividend, divisor, currency.roundingMode);
+    }
+
+    /**
+     * Rounds a major-unit amount from an external source, such as the conversion service, to minor units.
+     */
+    public long toMinorUnits(double amount) {
+        return BigDecimal.valueOf(amount).setScale(fractionDigits, roundingMode).unscaledValue().longValueExact();
+    }
+
+    public double toMajorUnits(long amount) {
+        return (double) amount / POWERS_OF_TEN[fractionDigits];
+    }
+
+    static long divide(long dividend, long divisor, RoundingMode roundingMode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int signum = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        boolean increment = switch (roundingMode) {
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+            case DOWN -> false;
+            case UP -> true;
+            case FLOOR -> signum < 0;
+            case CEILING -> signum > 0;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                long absRemainder = Math.abs(remainder);
+                int half = Long.compare(absRemainder, Math.abs(divisor) - absRemainder);
+                yield half > 0 || half == 0 && (roundingMode == RoundingMode.HALF_UP
+                        || roundingMode == RoundingMode.HALF_EVEN && (quotient & 1) != 0);
+            }
+        };
+        return increment ? quotient + signum : quotient;
     }
 }
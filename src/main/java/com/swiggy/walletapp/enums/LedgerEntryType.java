@@ -0,0 +1,5 @@
+package com.swiggy.walletapp.enums;
+
+public enum LedgerEntryType {
+    DEBIT, CREDIT
+}
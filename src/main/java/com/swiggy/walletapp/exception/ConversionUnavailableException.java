@@ -0,0 +1,13 @@
+package com.swiggy.walletapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ConversionUnavailableException extends RuntimeException {
+    public ConversionUnavailableException(String message, HttpStatus status) {
+        super(message);
+    }
+
+    public ConversionUnavailableException(String message, HttpStatus status, Throwable cause) {
+        super(message, cause);
+    }
+}
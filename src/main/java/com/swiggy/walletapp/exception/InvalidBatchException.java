@@ -0,0 +1,9 @@
+package com.swiggy.walletapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidBatchException extends RuntimeException {
+    public InvalidBatchException(String message, HttpStatus status) {
+        super(message);
+    }
+}
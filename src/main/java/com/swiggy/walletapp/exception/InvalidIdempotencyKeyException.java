@@ -0,0 +1,9 @@
+package com.swiggy.walletapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidIdempotencyKeyException extends RuntimeException {
+    public InvalidIdempotencyKeyException(String message, HttpStatus status) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.swiggy.walletapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidPageRequestException extends RuntimeException {
+    public InvalidPageRequestException(String message, HttpStatus status) {
+        super(message);
+    }
+}
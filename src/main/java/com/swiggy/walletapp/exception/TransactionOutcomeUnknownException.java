@@ -0,0 +1,9 @@
+package com.swiggy.walletapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class TransactionOutcomeUnknownException extends RuntimeException {
+    public TransactionOutcomeUnknownException(String message, HttpStatus status) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.swiggy.walletapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class TransactionRequestNotFoundException extends RuntimeException {
+    public TransactionRequestNotFoundException(String message, HttpStatus status) {
+        super(message);
+    }
+}
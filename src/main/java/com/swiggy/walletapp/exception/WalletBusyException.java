@@ -0,0 +1,13 @@
+package com.swiggy.walletapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class WalletBusyException extends RuntimeException {
+    public WalletBusyException(String message, HttpStatus status) {
+        super(message);
+    }
+
+    public WalletBusyException(String message, HttpStatus status, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,25 @@
+package com.swiggy.walletapp.repository;
+
+import com.swiggy.walletapp.entity.LedgerEntry;
+import com.swiggy.walletapp.entity.LedgerEntryView;
+import com.swiggy.walletapp.enums.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    Window<LedgerEntryView> findByWalletId(Long walletId, ScrollPosition position, Sort sort, Limit limit);
+    Window<LedgerEntryView> findByWalletIdAndTransactionType(Long walletId, TransactionType transactionType, ScrollPosition position, Sort sort, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<LedgerEntryView> streamByWalletIdOrderByTimestampAscIdAsc(Long walletId);
+}
@@ -0,0 +1,34 @@
+package com.swiggy.walletapp.repository;
+
+import com.swiggy.walletapp.entity.TransactionRequest;
+import com.swiggy.walletapp.enums.TransactionStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransactionRequestRepository extends JpaRepository<TransactionRequest, Long> {
+    Optional<TransactionRequest> findByIdAndUserIdAndWalletId(Long id, Long userId, Long walletId);
+
+    @Query("select r.id from TransactionRequest r where r.status = :pending and r.claimedUntil < :now order by r.id")
+    List<Long> findIdsWithExpiredClaim(@Param("pending") TransactionStatus pending, @Param("now") LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("update versioned TransactionRequest r set r.claimedBy = :owner, r.claimedUntil = :until, r.attempts = r.attempts + 1 " +
+            "where r.id = :id and r.status = :pending and r.claimedUntil < :now")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("until") LocalDateTime until, @Param("now") LocalDateTime now,
+              @Param("pending") TransactionStatus pending);
+
+    @Modifying
+    @Query("update versioned TransactionRequest r set r.status = :failed, r.failureMessage = :message, r.completedAt = :completedAt " +
+            "where r.id = :id and r.status = :pending")
+    int markFailed(@Param("id") Long id, @Param("message") String message, @Param("completedAt") LocalDateTime completedAt,
+                   @Param("pending") TransactionStatus pending, @Param("failed") TransactionStatus failed);
+}
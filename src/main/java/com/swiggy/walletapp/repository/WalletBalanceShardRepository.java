@@ -0,0 +1,36 @@
+package com.swiggy.walletapp.repository;
+
+import com.swiggy.walletapp.entity.WalletBalanceShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WalletBalanceShardRepository extends JpaRepository<WalletBalanceShard, Long> {
+
+    @Modifying
+    @Query("update WalletBalanceShard s set s.balance = s.balance + :amount where s.walletId = :walletId and s.shardIndex = :shardIndex")
+    int credit(@Param("walletId") Long walletId, @Param("shardIndex") int shardIndex, @Param("amount") long amount);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from WalletBalanceShard s where s.walletId = :walletId order by s.shardIndex")
+    List<WalletBalanceShard> findAllByWalletIdForUpdate(@Param("walletId") Long walletId);
+
+    @Modifying
+    @Query("update WalletBalanceShard s set s.balance = 0 where s.walletId = :walletId")
+    int clearBalances(@Param("walletId") Long walletId);
+
+    @Modifying
+    @Query("delete from WalletBalanceShard s where s.walletId = :walletId")
+    int deleteAllByWalletId(@Param("walletId") Long walletId);
+
+    @Query("select s.walletId, sum(s.balance) from WalletBalanceShard s where s.walletId in :walletIds group by s.walletId")
+    List<Object[]> sumBalancesByWalletId(@Param("walletIds") Collection<Long> walletIds);
+}
@@ -2,10 +2,17 @@ package com.swiggy.walletapp.repository;
 
 import com.swiggy.walletapp.entity.User;
 import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.entity.WalletOwnerView;
 import io.micrometer.common.KeyValues;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +21,26 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
     Optional<Wallet> findByUserId(Long userId);
 
     List<Wallet> findAllByUser(User user);
-}
\ No newline at end of file
+
+    Optional<Wallet> findByIdAndUserId(Long id, Long userId);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    @Query("select w.id as id, w.user.id as userId, w.currency as currency from Wallet w where w.id in :ids")
+    List<WalletOwnerView> findOwnersByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select w.shardCount from Wallet w where w.id = :walletId")
+    Optional<Integer> findShardCountById(@Param("walletId") Long walletId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from Wallet w where w.id in :ids order by w.id")
+    List<Wallet> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update versioned Wallet w set w.balance = w.balance + :amount where w.id = :walletId")
+    int credit(@Param("walletId") Long walletId, @Param("amount") long amount);
+
+    @Modifying
+    @Query("update versioned Wallet w set w.balance = w.balance - :amount where w.id = :walletId and w.balance >= :amount")
+    int debit(@Param("walletId") Long walletId, @Param("amount") long amount);
+}
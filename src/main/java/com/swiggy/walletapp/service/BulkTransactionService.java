@@ -0,0 +1,316 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.dto.BulkTransactionDto;
+import com.swiggy.walletapp.dto.BulkTransactionResultDto;
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.entity.LedgerEntry;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.entity.WalletOwnerView;
+import com.swiggy.walletapp.enums.LedgerEntryType;
+import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.exception.InsufficientFundsException;
+import com.swiggy.walletapp.exception.InvalidBatchException;
+import com.swiggy.walletapp.exception.InvalidTransactionTypeException;
+import com.swiggy.walletapp.exception.UnauthorizedAccessException;
+import com.swiggy.walletapp.exception.UserNotFoundException;
+import com.swiggy.walletapp.exception.WalletNotFoundException;
+import com.swiggy.walletapp.repository.LedgerEntryRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Applies many deposits, withdrawals and transfers of one user in a single request. Every item is validated and
+ * converted before any row is locked, with one ownership query for the whole batch. The items that pass are applied in
+ * chunks: each chunk is one transaction that locks its wallets once, moves their balances in memory and writes the
+ * wallet updates and ledger entries as JDBC batches. A failed item is reported in its result and does not hold back
+ * the rest of the batch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkTransactionService {
+
+    private final WalletRepository walletRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final MoneyConversionService moneyConversionService;
+    private final WalletShardingService walletShardingService;
+    private final WalletLockManager walletLockManager;
+    private final WalletOperationRetry walletOperationRetry;
+    private final WalletBalanceCache walletBalanceCache;
+    private final WalletProperties walletProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    public List<BulkTransactionResultDto> createTransactions(Long userId, List<BulkTransactionDto> transactions) {
+        WalletProperties.Bulk bulk = walletProperties.getBulk();
+        if (transactions == null || transactions.isEmpty())
+            throw new InvalidBatchException("Batch must contain at least one transaction", HttpStatus.BAD_REQUEST);
+        if (transactions.size() > bulk.getMaxItems())
+            throw new InvalidBatchException("Batch must not contain more than " + bulk.getMaxItems() + " transactions", HttpStatus.BAD_REQUEST);
+
+        BulkTransactionResultDto[] results = new BulkTransactionResultDto[transactions.size()];
+        Map<Long, WalletOwnerView> wallets = loadWallets(transactions);
+        List<PreparedTransaction> prepared = new ArrayList<>();
+        for (int index = 0; index < transactions.size(); index++) {
+            try {
+                prepared.add(prepare(index, userId, transactions.get(index), wallets));
+            } catch (RuntimeException e) {
+                results[index] = BulkTransactionResultDto.failed(index, e.getMessage());
+            }
+        }
+
+        for (int from = 0; from < prepared.size(); from += bulk.getChunkSize()) {
+            List<PreparedTransaction> chunk = prepared.subList(from, Math.min(from + bulk.getChunkSize(), prepared.size()));
+            List<Outcome> outcomes = apply(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                int index = chunk.get(i).index();
+                Outcome outcome = outcomes.get(i);
+                results[index] = outcome.failure() == null
+                        ? BulkTransactionResultDto.completed(index, outcome.amount())
+                        : BulkTransactionResultDto.failed(index, outcome.failure().getMessage());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Validates and converts a single transaction the same way as an item of a batch, for callers that apply it later
+     * through {@link #apply(List)}.
+     */
+    PreparedTransaction prepare(Long userId, Long walletId, TransactionDto transactionDto) {
+        BulkTransactionDto transaction = toBulkTransaction(walletId, transactionDto);
+        return prepare(0, userId, transaction, loadWallets(List.of(transaction)));
+    }
+
+    /**
+     * Runs the checks of {@link #prepare(Long, Long, TransactionDto)} that need no conversion: type, amount, currency,
+     * ownership and recipient. Lets a caller accept a transaction without waiting on a remote conversion.
+     */
+    void validate(Long userId, Long walletId, TransactionDto transactionDto) {
+        BulkTransactionDto transaction = toBulkTransaction(walletId, transactionDto);
+        check(userId, transaction, loadWallets(List.of(transaction)));
+    }
+
+    private static BulkTransactionDto toBulkTransaction(Long walletId, TransactionDto transactionDto) {
+        return new BulkTransactionDto(walletId, transactionDto.getTransactionType(), transactionDto.getAmount(),
+                transactionDto.getCurrency(), transactionDto.getRecipientWalletId());
+    }
+
+    private Map<Long, WalletOwnerView> loadWallets(List<BulkTransactionDto> transactions) {
+        Set<Long> walletIds = transactions.stream()
+                .filter(Objects::nonNull)
+                .flatMap(transaction -> Stream.of(transaction.getWalletId(), transaction.getRecipientWalletId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (walletIds.isEmpty())
+            return Map.of();
+        return walletRepository.findOwnersByIdIn(walletIds).stream()
+                .collect(Collectors.toMap(WalletOwnerView::getId, Function.identity()));
+    }
+
+    /**
+     * Checks one item against the batch's wallets and converts its amount into the currencies of the wallets it
+     * touches. Conversion rates are cached per currency pair, so the whole pass costs at most one remote call per pair.
+     */
+    private PreparedTransaction prepare(int index, Long userId, BulkTransactionDto transaction, Map<Long, WalletOwnerView> wallets) {
+        WalletOwnerView wallet = check(userId, transaction, wallets);
+        TransactionType type = transaction.getTransactionType();
+        switch (type) {
+            case DEPOSIT -> {
+                long amount = moneyConversionService.convert(transaction.getCurrency(), wallet.getCurrency(), transaction.getAmount());
+                Wallet.validateDepositAmount(amount);
+                return new PreparedTransaction(index, type, userId, null, 0, wallet.getId(), amount, userId);
+            }
+            case WITHDRAWAL -> {
+                long amount = moneyConversionService.convert(transaction.getCurrency(), wallet.getCurrency(), transaction.getAmount());
+                Wallet.validateWithdrawalAmount(amount);
+                return new PreparedTransaction(index, type, userId, wallet.getId(), amount, null, 0, null);
+            }
+            default -> {
+                WalletOwnerView recipient = wallets.get(transaction.getRecipientWalletId());
+                long convertedAmount = moneyConversionService.convert(wallet.getCurrency(), recipient.getCurrency(), transaction.getAmount());
+                Wallet.validateDepositAmount(convertedAmount);
+                return new PreparedTransaction(index, type, userId, wallet.getId(), transaction.getAmount(), recipient.getId(), convertedAmount, recipient.getUserId());
+            }
+        }
+    }
+
+    /**
+     * Checks everything about an item that needs no conversion and returns the wallet it is made from.
+     */
+    private static WalletOwnerView check(Long userId, BulkTransactionDto transaction, Map<Long, WalletOwnerView> wallets) {
+        if (transaction == null || transaction.getTransactionType() == null)
+            throw new InvalidTransactionTypeException("Invalid transaction type", HttpStatus.BAD_REQUEST);
+        TransactionType type = transaction.getTransactionType();
+        if (type == TransactionType.DEPOSIT) {
+            Wallet.validateDepositAmount(transaction.getAmount());
+        } else {
+            Wallet.validateWithdrawalAmount(transaction.getAmount());
+        }
+
+        WalletOwnerView wallet = transaction.getWalletId() == null ? null : wallets.get(transaction.getWalletId());
+        if (wallet == null)
+            throw new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND);
+        if (!userId.equals(wallet.getUserId()))
+            throw new UnauthorizedAccessException("Unauthorized access to wallet", HttpStatus.UNAUTHORIZED);
+
+        switch (type) {
+            case DEPOSIT, WITHDRAWAL -> {
+                if (transaction.getCurrency() == null)
+                    throw new InvalidBatchException("Currency is required", HttpStatus.BAD_REQUEST);
+            }
+            case TRANSFER -> {
+                WalletOwnerView recipient = transaction.getRecipientWalletId() == null ? null : wallets.get(transaction.getRecipientWalletId());
+                if (recipient == null)
+                    throw new WalletNotFoundException("Recipient wallet not found", HttpStatus.NOT_FOUND);
+                if (recipient.getUserId() == null)
+                    throw new UserNotFoundException("User not found", HttpStatus.NOT_FOUND);
+            }
+            default -> throw new InvalidTransactionTypeException("Invalid transaction type", HttpStatus.BAD_REQUEST);
+        }
+        return wallet;
+    }
+
+    /**
+     * Applies prepared transactions in one database transaction and returns their outcomes in the same order. Items
+     * fail individually on missing wallets or insufficient funds; if the transaction itself cannot commit, every item
+     * fails with that cause.
+     */
+    List<Outcome> apply(List<PreparedTransaction> chunk) {
+        return apply(chunk, outcomes -> {
+        });
+    }
+
+    /**
+     * Same as {@link #apply(List)}, and hands the outcomes to {@code beforeCommit} inside the transaction, so callers
+     * can record them atomically with the balance changes. An exception from the callback rolls the chunk back.
+     */
+    List<Outcome> apply(List<PreparedTransaction> chunk, Consumer<List<Outcome>> beforeCommit) {
+        // Same rule as single transactions: a sharded wallet that is only credited is written through its shard rows,
+        // so its wallet row is left unlocked.
+        Set<Long> lockIds = new TreeSet<>();
+        for (PreparedTransaction transaction : chunk) {
+            if (transaction.debitWalletId() != null)
+                lockIds.add(transaction.debitWalletId());
+        }
+        for (PreparedTransaction transaction : chunk) {
+            if (transaction.creditWalletId() != null && !walletShardingService.isSharded(transaction.creditWalletId()))
+                lockIds.add(transaction.creditWalletId());
+        }
+
+        Long retryWalletId = lockIds.isEmpty() ? chunk.get(0).creditWalletId() : lockIds.iterator().next();
+        try {
+            // Stripes are taken per attempt, so a retry backoff never sleeps while holding them.
+            return walletOperationRetry.execute(retryWalletId, () -> walletLockManager.withLocks(lockIds,
+                    () -> transactionTemplate.execute(status -> {
+                        List<Outcome> outcomes = applyInTransaction(chunk, lockIds);
+                        beforeCommit.accept(outcomes);
+                        return outcomes;
+                    })));
+        } catch (RuntimeException e) {
+            // Earlier chunks have already committed, so whatever went wrong only fails this chunk's items.
+            log.warn("Failed to apply a chunk of {} transactions", chunk.size(), e);
+            return chunk.stream().map(transaction -> Outcome.failed(e)).toList();
+        }
+    }
+
+    private List<Outcome> applyInTransaction(List<PreparedTransaction> chunk, Collection<Long> lockIds) {
+        // The persistence context can outlive a chunk (open-in-view, or a retried attempt), and wallets it still holds
+        // would come back from the lock query with their old balances.
+        entityManager.clear();
+        Map<Long, Wallet> lockedWallets = lockIds.isEmpty() ? Map.of() : walletRepository.findAllByIdForUpdate(lockIds).stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+        Set<Long> shardedIds = chunk.stream()
+                .map(PreparedTransaction::creditWalletId)
+                .filter(walletId -> walletId != null && !lockedWallets.containsKey(walletId))
+                .collect(Collectors.toSet());
+        Map<Long, Wallet> shardedWallets = shardedIds.isEmpty() ? Map.of() : walletRepository.findAllById(shardedIds).stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+
+        List<Outcome> outcomes = new ArrayList<>(chunk.size());
+        List<LedgerEntry> ledgerEntries = new ArrayList<>(chunk.size() * 2);
+        Set<Long> userIds = new HashSet<>();
+        for (PreparedTransaction transaction : chunk) {
+            Wallet debitWallet = transaction.debitWalletId() == null ? null : lockedWallets.get(transaction.debitWalletId());
+            Wallet creditWallet = null;
+            if (transaction.creditWalletId() != null) {
+                creditWallet = lockedWallets.getOrDefault(transaction.creditWalletId(), shardedWallets.get(transaction.creditWalletId()));
+            }
+            if ((transaction.debitWalletId() != null && debitWallet == null) || (transaction.creditWalletId() != null && creditWallet == null)) {
+                outcomes.add(Outcome.failed(new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND)));
+                continue;
+            }
+            if (debitWallet != null && !debit(debitWallet, transaction.debitAmount())) {
+                outcomes.add(Outcome.failed(new InsufficientFundsException("Insufficient funds", HttpStatus.BAD_REQUEST)));
+                continue;
+            }
+
+            userIds.add(transaction.userId());
+            if (debitWallet != null) {
+                ledgerEntries.add(new LedgerEntry(debitWallet, LedgerEntryType.DEBIT, transaction.type(), transaction.debitAmount(), transaction.creditWalletId()));
+            }
+            if (creditWallet != null) {
+                if (lockedWallets.containsKey(creditWallet.getId())) {
+                    creditWallet.deposit(transaction.creditAmount());
+                } else {
+                    walletShardingService.credit(creditWallet, transaction.creditAmount());
+                }
+                ledgerEntries.add(new LedgerEntry(creditWallet, LedgerEntryType.CREDIT, transaction.type(), transaction.creditAmount(), transaction.debitWalletId()));
+                userIds.add(transaction.creditUserId());
+            }
+            outcomes.add(new Outcome(creditWallet != null ? transaction.creditAmount() : transaction.debitAmount(), null));
+        }
+        ledgerEntryRepository.saveAll(ledgerEntries);
+        walletBalanceCache.evictAfterCommit(userIds.toArray(Long[]::new));
+        return outcomes;
+    }
+
+    private boolean debit(Wallet wallet, long amount) {
+        if (wallet.getBalance() < amount && wallet.isSharded()) {
+            long drained = walletShardingService.drainShards(wallet.getId());
+            if (drained > 0)
+                wallet.deposit(drained);
+        }
+        if (wallet.getBalance() < amount)
+            return false;
+        wallet.withdraw(amount);
+        return true;
+    }
+
+    /**
+     * A validated item with its amounts in the currencies of the wallets it debits and credits. Deposits have no debit
+     * wallet and withdrawals no credit wallet.
+     */
+    record PreparedTransaction(int index, TransactionType type, Long userId, Long debitWalletId, long debitAmount,
+                               Long creditWalletId, long creditAmount, Long creditUserId) {
+    }
+
+    /**
+     * The amount moved by an applied transaction, or the reason it was not applied.
+     */
+    record Outcome(long amount, RuntimeException failure) {
+        static Outcome failed(RuntimeException failure) {
+            return new Outcome(0, failure);
+        }
+    }
+}
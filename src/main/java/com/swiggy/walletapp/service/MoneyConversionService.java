@@ -1,50 +1,170 @@
 package com.swiggy.walletapp.service;
 
-import com.swiggy.walletapp.dto.MoneyConversionRequest;
-import com.swiggy.walletapp.dto.MoneyConversionResponse;
+import com.swiggy.walletapp.client.ConversionClient;
+import com.swiggy.walletapp.config.ConversionProperties;
 import com.swiggy.walletapp.dto.MoneyDto;
-import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.exception.ConversionUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class MoneyConversionService {
 
-//    private final MoneyConverterGrpc.MoneyConverterBlockingStub moneyConverterStub;
-//
-//    public MoneyDto convertMoney(MoneyDto money, String toCurrency) {
-//        MoneyConverterOuterClass.Money fromMoney = MoneyConverterOuterClass.Money.newBuilder()
-//                .setCurrency(money.getCurrency())
-//                .setAmount(money.getAmount())
-//                .build();
-//
-//        MoneyConverterOuterClass.ConvertRequest request = MoneyConverterOuterClass.ConvertRequest.newBuilder()
-//                .setFrom(fromMoney)
-//                .setToCurrency(toCurrency)
-//                .build();
-//
-//        MoneyConverterOuterClass.ConvertResponse response = moneyConverterStub.convert(request);
-//        return new MoneyDto(response.getConverted().getCurrency(), response.getConverted().getAmount());
-//    }
-
-    private final RestTemplate restTemplate;
-
-    private static final String CONVERSION_URL = "http://host.docker.internal:8085/convertedMoney";
+    private static final String CACHE_METRIC = "conversion.rate.cache";
+    // Rates are fetched by converting this many major units, so a remote that rounds its result to the target
+    // currency's minor units still yields a rate precise to well below a minor unit per major unit.
+    static final double RATE_REFERENCE_AMOUNT = 1_000_000.0;
+
+    private final ConversionClient conversionClient;
+    private final ConversionProperties conversionProperties;
+    private final Clock clock;
+    private final Map<String, CachedRate> rates = new ConcurrentHashMap<>();
+
+    private final Counter skipped;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Counter fallbacks;
+    private final Counter refreshFailures;
+
+    @Autowired
+    public MoneyConversionService(ConversionClient conversionClient, ConversionProperties conversionProperties, MeterRegistry meterRegistry) {
+        this(conversionClient, conversionProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    MoneyConversionService(ConversionClient conversionClient, ConversionProperties conversionProperties, MeterRegistry meterRegistry, Clock clock) {
+        this.conversionClient = conversionClient;
+        this.conversionProperties = conversionProperties;
+        this.clock = clock;
+        this.skipped = cacheCounter(meterRegistry, "skipped");
+        this.hits = cacheCounter(meterRegistry, "hit");
+        this.misses = cacheCounter(meterRegistry, "miss");
+        this.staleHits = cacheCounter(meterRegistry, "stale");
+        this.fallbacks = cacheCounter(meterRegistry, "fallback");
+        this.refreshFailures = Counter.builder(CACHE_METRIC + ".refresh.failures").register(meterRegistry);
+        Gauge.builder(CACHE_METRIC + ".size", rates, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Converts a minor-unit amount. The conversion service speaks major units, so the amount crosses that boundary
+     * as a {@code double} and is rounded back to minor units once, by the target currency's rounding mode.
+     */
+    public long convert(Currency fromCurrency, Currency toCurrency, long amount) {
+        if (fromCurrency == toCurrency) {
+            skipped.increment();
+            return amount;
+        }
+        MoneyDto converted = convertMoney(new MoneyDto(fromCurrency.name(), fromCurrency.toMajorUnits(amount)), toCurrency.name());
+        return toCurrency.toMinorUnits(converted.getAmount());
+    }
 
     public MoneyDto convertMoney(MoneyDto money, String toCurrency) {
-        MoneyConversionRequest request = new MoneyConversionRequest(money, toCurrency);
+        try {
+            return convertMoneyAsync(money, toCurrency).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 
-        ResponseEntity<MoneyConversionResponse> response = restTemplate.postForEntity(
-                CONVERSION_URL, request, MoneyConversionResponse.class
-        );
+    public CompletableFuture<MoneyDto> convertMoneyAsync(MoneyDto money, String toCurrency) {
+        if (money.getCurrency().equals(toCurrency)) {
+            skipped.increment();
+            return CompletableFuture.completedFuture(new MoneyDto(toCurrency, money.getAmount()));
+        }
 
-        MoneyConversionResponse responseBody = response.getBody();
-        if (responseBody == null) {
-            throw new RuntimeException("Invalid response from currency conversion service");
+        String pair = pairKey(money.getCurrency(), toCurrency);
+        CachedRate cachedRate = rates.get(pair);
+        if (cachedRate != null && !cachedRate.isStale(clock.instant(), conversionProperties.getCache().getTtl())) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cachedRate.apply(money, toCurrency));
         }
 
-        return new MoneyDto(responseBody.getConverted().getCurrency(), responseBody.getConverted().getAmount());
+        // The rate comes from a fixed reference amount rather than this caller's, which may be too small to carry it.
+        return fetchRate(money.getCurrency(), toCurrency).handle((rate, error) -> {
+            if (error == null) {
+                misses.increment();
+                rates.put(pair, rate);
+                return rate.apply(money, toCurrency);
+            }
+
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (!(cause instanceof ConversionUnavailableException)) {
+                throw cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+            }
+            if (cachedRate != null) {
+                log.warn("Currency conversion service unavailable, serving stale {} rate", pair, cause);
+                staleHits.increment();
+                return cachedRate.apply(money, toCurrency);
+            }
+            log.warn("Currency conversion service unavailable, falling back to local {} rate", pair, cause);
+            fallbacks.increment();
+            Currency from = Currency.valueOf(money.getCurrency());
+            Currency to = Currency.valueOf(toCurrency);
+            long amount = from.convertTo(to, from.toMinorUnits(money.getAmount()));
+            return new MoneyDto(toCurrency, to.toMajorUnits(amount));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${conversion.cache.refresh-interval:PT1M}")
+    public void refreshRates() {
+        CompletableFuture<?>[] refreshes = rates.keySet().stream()
+                .map(this::refreshRate)
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(refreshes).exceptionally(e -> null).join();
+    }
+
+    private CompletableFuture<Void> refreshRate(String pair) {
+        String[] currencies = pair.split(":");
+        return fetchRate(currencies[0], currencies[1])
+                .handle((rate, error) -> {
+                    if (error == null) {
+                        rates.put(pair, rate);
+                    } else {
+                        log.warn("Failed to refresh {} conversion rate", pair, error);
+                        refreshFailures.increment();
+                    }
+                    return null;
+                });
+    }
+
+    private CompletableFuture<CachedRate> fetchRate(String fromCurrency, String toCurrency) {
+        return conversionClient.convert(new MoneyDto(fromCurrency, RATE_REFERENCE_AMOUNT), toCurrency)
+                .thenApply(converted -> new CachedRate(converted.getAmount() / RATE_REFERENCE_AMOUNT, clock.instant()));
+    }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(CACHE_METRIC).tag("result", result).register(meterRegistry);
+    }
+
+    private static String pairKey(String fromCurrency, String toCurrency) {
+        return fromCurrency + ":" + toCurrency;
+    }
+
+    private record CachedRate(double rate, Instant fetchedAt) {
+        boolean isStale(Instant now, Duration ttl) {
+            return fetchedAt.plus(ttl).isBefore(now);
+        }
+
+        MoneyDto apply(MoneyDto money, String toCurrency) {
+            return new MoneyDto(toCurrency, money.getAmount() * rate);
+        }
     }
 }
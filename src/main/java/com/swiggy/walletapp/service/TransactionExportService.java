@@ -0,0 +1,63 @@
+package com.swiggy.walletapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.swiggy.walletapp.dto.TransactionResponseDto;
+import com.swiggy.walletapp.entity.LedgerEntryView;
+import com.swiggy.walletapp.exception.UnauthorizedAccessException;
+import com.swiggy.walletapp.repository.LedgerEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+@Service
+public class TransactionExportService {
+
+    private final WalletService walletService;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Checks access up front, so a refused export still gets a proper error status, and returns a body that writes
+     * the wallet's whole history oldest first as one JSON object per line.
+     */
+    public StreamingResponseBody exportTransactions(Long userId, Long walletId) {
+        if (walletService.isUnauthorizedUser(userId, walletId))
+            throw new UnauthorizedAccessException("Unauthorized access to wallet", HttpStatus.UNAUTHORIZED);
+        return outputStream -> writeTransactions(walletId, outputStream);
+    }
+
+    /**
+     * Rows are read through a forward-only cursor as projections, so neither the result set nor the persistence
+     * context grows with the size of the history.
+     */
+    public void writeTransactions(Long walletId, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(TransactionResponseDto.class);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<LedgerEntryView> entries = ledgerEntryRepository.streamByWalletIdOrderByTimestampAscIdAsc(walletId)) {
+                    Iterator<LedgerEntryView> iterator = entries.iterator();
+                    while (iterator.hasNext()) {
+                        outputStream.write(writer.writeValueAsBytes(new TransactionResponseDto(iterator.next())));
+                        outputStream.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        outputStream.flush();
+    }
+}
@@ -0,0 +1,174 @@
+package com.swiggy.walletapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.entity.IdempotencyRecord;
+import com.swiggy.walletapp.exception.InvalidIdempotencyKeyException;
+import com.swiggy.walletapp.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs a transaction POST at most once per {@code Idempotency-Key} and user. Completed keys are answered from a
+ * bounded in-memory cache, then from the {@code idempotency_record} table, without moving money again.
+ * <p>
+ * The key is stored by the same database transaction that applies the money movement, so it exists exactly when the
+ * money has moved. A failure with an unknown outcome leaves both or neither, and a retry with the key is then replayed
+ * or applied. Duplicates arriving while the first request is still running on this instance wait for it and share its
+ * outcome; on another instance they block on the unique key until the first commits, roll back and replay it.
+ */
+@Slf4j
+@Service
+public class TransactionIdempotencyService {
+
+    static final String CACHE_NAME = "wallet.idempotency";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final BulkTransactionService bulkTransactionService;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletProperties walletProperties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<Key, String> completed;
+    private final Map<Key, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public TransactionIdempotencyService(BulkTransactionService bulkTransactionService, IdempotencyRecordRepository idempotencyRecordRepository,
+                                         TransactionTemplate transactionTemplate, WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        this.bulkTransactionService = bulkTransactionService;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.walletProperties = walletProperties;
+        this.meterRegistry = meterRegistry;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(walletProperties.getIdempotency().getCacheSize())
+                .expireAfterWrite(walletProperties.getIdempotency().getRetention())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, CACHE_NAME);
+    }
+
+    /**
+     * Applies the transaction unless this key has already applied it.
+     *
+     * @return {@code true} when the transaction was not run again because the key had already been used for it
+     */
+    public boolean createTransaction(Long userId, Long walletId, String idempotencyKey, TransactionDto transactionDto) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH)
+            throw new InvalidIdempotencyKeyException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters", HttpStatus.BAD_REQUEST);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "failed";
+        try {
+            result = apply(new Key(userId, idempotencyKey), walletId, fingerprint(walletId, transactionDto), transactionDto);
+            return !result.equals("executed");
+        } finally {
+            sample.stop(Timer.builder("wallet.idempotency.requests").tag("result", result).register(meterRegistry));
+        }
+    }
+
+    private String apply(Key key, Long walletId, String fingerprint, TransactionDto transactionDto) {
+        String cached = completed.getIfPresent(key);
+        if (cached != null) {
+            checkFingerprint(cached, fingerprint);
+            return "cache_hit";
+        }
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            checkFingerprint(running.fingerprint(), fingerprint);
+            join(running.result());
+            return "in_flight_hit";
+        }
+        try {
+            String result = execute(key, walletId, fingerprint, transactionDto);
+            mine.result().complete(null);
+            return result;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private String execute(Key key, Long walletId, String fingerprint, TransactionDto transactionDto) {
+        IdempotencyRecord existing = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(key.userId(), key.idempotencyKey()).orElse(null);
+        if (existing != null)
+            return replay(key, existing, fingerprint);
+
+        BulkTransactionService.PreparedTransaction transaction = bulkTransactionService.prepare(key.userId(), walletId, transactionDto);
+        BulkTransactionService.Outcome outcome = bulkTransactionService.apply(List.of(transaction), outcomes -> {
+            // A transaction that fails, for example on insufficient funds, moves nothing and leaves the key unused.
+            if (outcomes.get(0).failure() == null)
+                idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(key.userId(), key.idempotencyKey(), fingerprint));
+        }).get(0);
+        if (outcome.failure() instanceof DataIntegrityViolationException e) {
+            // Another instance stored the key first, so this attempt was rolled back.
+            return replay(key, idempotencyRecordRepository.findByUserIdAndIdempotencyKey(key.userId(), key.idempotencyKey())
+                    .orElseThrow(() -> e), fingerprint);
+        }
+        if (outcome.failure() != null)
+            throw outcome.failure();
+
+        completed.put(key, fingerprint);
+        return "executed";
+    }
+
+    private String replay(Key key, IdempotencyRecord existing, String fingerprint) {
+        checkFingerprint(existing.getRequestFingerprint(), fingerprint);
+        completed.put(key, fingerprint);
+        return "store_hit";
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.idempotency.purge-interval:PT1H}")
+    public void purgeExpiredKeys() {
+        LocalDateTime before = LocalDateTime.now().minus(walletProperties.getIdempotency().getRetention());
+        Integer purged = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteCreatedBefore(before));
+        if (purged != null && purged > 0)
+            log.info("Purged {} expired idempotency keys", purged);
+    }
+
+    private static void checkFingerprint(String stored, String fingerprint) {
+        if (!stored.equals(fingerprint))
+            throw new InvalidIdempotencyKeyException("Idempotency-Key was already used for a different transaction", HttpStatus.BAD_REQUEST);
+    }
+
+    private static void join(CompletableFuture<Void> result) {
+        try {
+            result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private static String fingerprint(Long walletId, TransactionDto transactionDto) {
+        return String.join("|", String.valueOf(walletId), String.valueOf(transactionDto.getTransactionType()),
+                String.valueOf(transactionDto.getAmount()), String.valueOf(transactionDto.getCurrency()),
+                String.valueOf(transactionDto.getRecipientWalletId()));
+    }
+
+    private record Key(Long userId, String idempotencyKey) {
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<Void> result) {
+    }
+}
@@ -0,0 +1,343 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.entity.TransactionRequest;
+import com.swiggy.walletapp.enums.TransactionStatus;
+import com.swiggy.walletapp.exception.ConversionUnavailableException;
+import com.swiggy.walletapp.exception.WalletBusyException;
+import com.swiggy.walletapp.repository.TransactionRequestRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Executes async transaction requests on a fixed set of worker threads partitioned by wallet id. All requests of a
+ * wallet go to the same worker, so they are applied in the order they were accepted. A worker takes whatever its
+ * queue holds, up to the bulk chunk size, and applies it as one transaction that also records each request's status.
+ * <p>
+ * A request that cannot be applied for a transient reason, or whose chunk cannot commit, is retried in place every
+ * {@code retryBackoff}, and its worker takes nothing else until it has settled, so no later request of its wallet
+ * overtakes it. One that is still unsettled when its claim is about to expire is failed.
+ * <p>
+ * Every instance only works on requests it has claimed: its own submissions, and pending requests whose claim has
+ * expired, which a periodic sweep claims again. That covers instances that died with requests queued; those requests
+ * are applied after any of their wallet's requests that other instances accepted in the meantime. The claim timeout
+ * must therefore exceed the time a request can spend queued and applied; a request is given up on, and failed, after
+ * {@code maxAttempts} claims.
+ */
+@Slf4j
+@Component
+public class TransactionRequestProcessor implements AutoCloseable {
+
+    private final BulkTransactionService bulkTransactionService;
+    private final TransactionRequestRepository transactionRequestRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int queueCapacity;
+    private final int chunkSize;
+    private final Duration claimTimeout;
+    private final Duration retryBackoff;
+    private final int maxAttempts;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Partition[] partitions;
+    private final Map<Long, Set<CompletableFuture<Void>>> waiters = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    public TransactionRequestProcessor(BulkTransactionService bulkTransactionService, TransactionRequestRepository transactionRequestRepository,
+                                       TransactionTemplate transactionTemplate, WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        this.bulkTransactionService = bulkTransactionService;
+        this.transactionRequestRepository = transactionRequestRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.queueCapacity = walletProperties.getAsync().getQueueCapacity();
+        this.chunkSize = walletProperties.getBulk().getChunkSize();
+        this.claimTimeout = walletProperties.getAsync().getClaimTimeout();
+        this.retryBackoff = walletProperties.getAsync().getRetryBackoff();
+        this.maxAttempts = walletProperties.getAsync().getMaxAttempts();
+        this.partitions = new Partition[walletProperties.getAsync().getPartitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(new LinkedBlockingQueue<>(), new Thread(this::run, "transaction-request-" + i));
+            Gauge.builder("wallet.async.queue.size", partitions[i].queue(), BlockingQueue::size)
+                    .tag("partition", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        Gauge.builder("wallet.async.waiters", waiters, Map::size).register(meterRegistry);
+        for (Partition partition : partitions) {
+            partition.worker().setDaemon(true);
+            partition.worker().start();
+        }
+    }
+
+    public boolean hasCapacity(Long walletId) {
+        return running && partitionOf(walletId).queue().size() < queueCapacity;
+    }
+
+    /**
+     * Claims a new request for this instance; call before storing it.
+     */
+    public void claim(TransactionRequest request) {
+        request.claim(instanceId, LocalDateTime.now().plus(claimTimeout));
+    }
+
+    /**
+     * Hands a stored request claimed by this instance to its wallet's worker. The request must already be committed as
+     * pending.
+     */
+    public void enqueue(TransactionRequest request) {
+        partitionOf(request.getWalletId()).queue().add(request);
+    }
+
+    /**
+     * Completes once this instance has finished processing the request, whatever the outcome. Each caller gets its own
+     * future and is forgotten as soon as that future is done, so a caller that stops waiting, by completing or
+     * cancelling it, leaves nothing behind.
+     */
+    public CompletableFuture<Void> completion(Long requestId) {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        waiters.compute(requestId, (id, futures) -> {
+            Set<CompletableFuture<Void>> registered = futures == null ? new HashSet<>() : futures;
+            registered.add(completion);
+            return registered;
+        });
+        completion.whenComplete((done, e) -> waiters.computeIfPresent(requestId, (id, futures) -> {
+            futures.remove(completion);
+            return futures.isEmpty() ? null : futures;
+        }));
+        return completion;
+    }
+
+    /**
+     * Claims pending requests whose claim has expired and queues them here. Each row is claimed with a conditional
+     * update, so when several instances sweep at once every request goes to exactly one of them.
+     */
+    @Scheduled(fixedDelayString = "${wallet.async.sweep-interval:PT10S}")
+    public void claimExpiredRequests() {
+        if (!running) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> expired = transactionRequestRepository.findIdsWithExpiredClaim(TransactionStatus.PENDING, now,
+                Limit.of(chunkSize * partitions.length));
+        if (expired.isEmpty()) {
+            return;
+        }
+        LocalDateTime until = now.plus(claimTimeout);
+        List<Long> claimed = transactionTemplate.execute(status -> expired.stream()
+                .filter(id -> transactionRequestRepository.claim(id, instanceId, until, now, TransactionStatus.PENDING) == 1)
+                .toList());
+        if (claimed == null || claimed.isEmpty()) {
+            return;
+        }
+
+        List<TransactionRequest> requests = transactionRequestRepository.findAllById(claimed).stream()
+                .sorted(Comparator.comparing(TransactionRequest::getId))
+                .toList();
+        List<Long> exhausted = requests.stream()
+                .filter(request -> request.getAttempts() > maxAttempts)
+                .map(TransactionRequest::getId)
+                .toList();
+        if (!exhausted.isEmpty()) {
+            log.warn("Giving up on {} transaction requests after {} attempts", exhausted.size(), maxAttempts);
+            String message = "Gave up after " + maxAttempts + " attempts";
+            transactionTemplate.executeWithoutResult(status -> exhausted.forEach(id ->
+                    transactionRequestRepository.markFailed(id, message, now, TransactionStatus.PENDING, TransactionStatus.FAILED)));
+        }
+        log.info("Claimed {} transaction requests whose previous claim expired", requests.size() - exhausted.size());
+        requests.stream().filter(request -> request.getAttempts() <= maxAttempts).forEach(this::enqueue);
+    }
+
+    private void run() {
+        BlockingQueue<TransactionRequest> queue = partitions[partitionIndex(Thread.currentThread())].queue();
+        List<TransactionRequest> batch = new ArrayList<>(chunkSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                TransactionRequest first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, chunkSize - 1);
+                List<TransactionRequest> deferred = attempt(batch);
+                // Later requests stay queued while any request is deferred, so none of them overtakes it.
+                while (!deferred.isEmpty() && running) {
+                    Thread.sleep(retryBackoff.toMillis());
+                    deferred = retry(deferred);
+                }
+                if (!deferred.isEmpty()) {
+                    log.warn("Leaving {} deferred transaction requests until their claim expires", deferred.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.forEach(request -> notifyCompleted(request.getId()));
+                batch.clear();
+            }
+        }
+    }
+
+    private List<TransactionRequest> attempt(List<TransactionRequest> requests) {
+        try {
+            return process(requests);
+        } catch (RuntimeException e) {
+            // Requests settled before the failure are no longer pending, and process skips them next time.
+            log.error("Failed to process {} transaction requests, retrying them", requests.size(), e);
+            return requests;
+        }
+    }
+
+    private List<TransactionRequest> retry(List<TransactionRequest> deferred) {
+        // One that could not be retried before its claim expires is failed, rather than swept up by an instance that
+        // would apply it after later requests of its wallet.
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextAttempt = now.plus(retryBackoff);
+        List<Long> expiring = deferred.stream()
+                .filter(request -> !request.getClaimedUntil().isAfter(nextAttempt))
+                .map(TransactionRequest::getId)
+                .toList();
+        if (expiring.isEmpty()) {
+            return attempt(deferred);
+        }
+        try {
+            log.warn("Failing {} transaction requests that could not be applied before their claim expired", expiring.size());
+            String message = "Could not be applied before its claim expired";
+            transactionTemplate.executeWithoutResult(status -> expiring.forEach(id ->
+                    transactionRequestRepository.markFailed(id, message, now, TransactionStatus.PENDING, TransactionStatus.FAILED)));
+        } catch (RuntimeException e) {
+            log.error("Failed to fail {} expiring transaction requests, retrying them", expiring.size(), e);
+            return deferred;
+        }
+        return attempt(deferred.stream().filter(request -> !expiring.contains(request.getId())).toList());
+    }
+
+    /**
+     * Applies the requests this instance still owns and returns, in their original order, the ones left pending: those
+     * deferred for a transient reason, the later requests of their wallets, and all of a chunk that could not commit.
+     */
+    List<TransactionRequest> process(List<TransactionRequest> batch) {
+        // A request queued twice, or claimed by another instance since it was queued here, is skipped.
+        Map<Long, TransactionRequest> pending = transactionRequestRepository.findAllById(batch.stream().map(TransactionRequest::getId).toList()).stream()
+                .filter(request -> request.isPending() && request.isClaimedBy(instanceId))
+                .collect(Collectors.toMap(TransactionRequest::getId, Function.identity()));
+        List<TransactionRequest> requests = batch.stream().filter(request -> pending.remove(request.getId()) != null).toList();
+
+        Map<Long, String> failures = new LinkedHashMap<>();
+        Set<Long> deferredWallets = new HashSet<>();
+        List<TransactionRequest> prepared = new ArrayList<>();
+        List<BulkTransactionService.PreparedTransaction> transactions = new ArrayList<>();
+        for (TransactionRequest request : requests) {
+            if (deferredWallets.contains(request.getWalletId())) {
+                continue;
+            }
+            try {
+                transactions.add(bulkTransactionService.prepare(request.getUserId(), request.getWalletId(), request.toTransactionDto()));
+                prepared.add(request);
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    log.warn("Deferring transaction request {}", request.getId(), e);
+                    deferredWallets.add(request.getWalletId());
+                } else {
+                    failures.put(request.getId(), TransactionRequest.failureMessage(e.getMessage()));
+                }
+            }
+        }
+
+        // Outcomes are recorded with the balance changes. If the chunk cannot commit, its requests stay pending and
+        // are retried, so none of them is failed for another request's conflict.
+        boolean settled = deferredWallets.isEmpty();
+        if (!transactions.isEmpty()) {
+            settled &= bulkTransactionService.apply(transactions, applied -> record(prepared, applied)).stream()
+                    .allMatch(outcome -> outcome.failure() == null);
+        }
+
+        if (!failures.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> failures.forEach((id, message) ->
+                    transactionRequestRepository.markFailed(id, message, now, TransactionStatus.PENDING, TransactionStatus.FAILED)));
+        }
+        if (settled) {
+            return List.of();
+        }
+
+        // Failed items and a chunk that could not commit look alike from here, so the table tells which are pending.
+        Set<Long> unsettled = transactionRequestRepository.findAllById(requests.stream().map(TransactionRequest::getId).toList()).stream()
+                .filter(request -> request.isPending() && request.isClaimedBy(instanceId))
+                .map(TransactionRequest::getId)
+                .collect(Collectors.toSet());
+        return requests.stream().filter(request -> unsettled.contains(request.getId())).toList();
+    }
+
+    private void record(List<TransactionRequest> requests, List<BulkTransactionService.Outcome> outcomes) {
+        Map<Long, TransactionRequest> current = transactionRequestRepository.findAllById(requests.stream().map(TransactionRequest::getId).toList()).stream()
+                .collect(Collectors.toMap(TransactionRequest::getId, Function.identity()));
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequest request = current.get(requests.get(i).getId());
+            if (request == null || !request.isPending() || !request.isClaimedBy(instanceId)) {
+                throw new IllegalStateException("Transaction request " + requests.get(i).getId() + " was claimed or processed elsewhere");
+            }
+            BulkTransactionService.Outcome outcome = outcomes.get(i);
+            if (outcome.failure() == null) {
+                request.complete();
+            } else {
+                request.fail(outcome.failure().getMessage());
+            }
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof WalletBusyException || e instanceof ConversionUnavailableException || e instanceof DataAccessException;
+    }
+
+    private void notifyCompleted(Long requestId) {
+        Set<CompletableFuture<Void>> completions = waiters.remove(requestId);
+        if (completions != null) {
+            completions.forEach(completion -> completion.complete(null));
+        }
+    }
+
+    private Partition partitionOf(Long walletId) {
+        int hash = walletId.hashCode();
+        return partitions[Math.floorMod(hash ^ (hash >>> 16), partitions.length)];
+    }
+
+    private int partitionIndex(Thread worker) {
+        for (int i = 0; i < partitions.length; i++) {
+            if (partitions[i].worker() == worker) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Not a transaction request worker: " + worker.getName());
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        for (Partition partition : partitions) {
+            partition.worker().join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private record Partition(BlockingQueue<TransactionRequest> queue, Thread worker) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.dto.TransactionRequestDto;
+import com.swiggy.walletapp.entity.TransactionRequest;
+import com.swiggy.walletapp.enums.TransactionStatus;
+import com.swiggy.walletapp.exception.TransactionRequestNotFoundException;
+import com.swiggy.walletapp.exception.WalletBusyException;
+import com.swiggy.walletapp.repository.TransactionRequestRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accept-and-process mode for transactions. A request is checked for everything but its conversion, stored as pending
+ * and handed to {@link TransactionRequestProcessor}, which converts and applies it; the caller gets its id back before
+ * any money moves or any remote conversion runs.
+ */
+@RequiredArgsConstructor
+@Service
+public class TransactionRequestService {
+
+    private final TransactionRequestRepository transactionRequestRepository;
+    private final TransactionRequestProcessor transactionRequestProcessor;
+    private final BulkTransactionService bulkTransactionService;
+    private final WalletProperties walletProperties;
+
+    public TransactionRequestDto submit(Long userId, Long walletId, TransactionDto transactionDto) {
+        bulkTransactionService.validate(userId, walletId, transactionDto);
+        if (!transactionRequestProcessor.hasCapacity(walletId))
+            throw new WalletBusyException("Wallet is busy, please retry", HttpStatus.CONFLICT);
+
+        TransactionRequest request = new TransactionRequest(userId, walletId, transactionDto);
+        transactionRequestProcessor.claim(request);
+        request = transactionRequestRepository.save(request);
+        transactionRequestProcessor.enqueue(request);
+        return new TransactionRequestDto(request);
+    }
+
+    public TransactionRequestDto getRequest(Long userId, Long walletId, Long requestId) {
+        return transactionRequestRepository.findByIdAndUserIdAndWalletId(requestId, userId, walletId)
+                .map(TransactionRequestDto::new)
+                .orElseThrow(() -> new TransactionRequestNotFoundException("Transaction request not found", HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Completes with the request's status once it is no longer pending, or after {@code wait} (capped at the
+     * configured maximum) with whatever status it has then.
+     */
+    public CompletableFuture<TransactionRequestDto> awaitRequest(Long userId, Long walletId, Long requestId, Duration wait) {
+        TransactionRequestDto request = getRequest(userId, walletId, requestId);
+        if (request.getStatus() != TransactionStatus.PENDING || wait == null || wait.isNegative() || wait.isZero())
+            return CompletableFuture.completedFuture(request);
+
+        // The future is this caller's own, so completing or cancelling it here also unregisters it.
+        CompletableFuture<Void> completion = transactionRequestProcessor.completion(requestId);
+        // The worker may have finished between the first read and registering for its completion.
+        try {
+            request = getRequest(userId, walletId, requestId);
+        } catch (RuntimeException e) {
+            completion.cancel(false);
+            throw e;
+        }
+        if (request.getStatus() != TransactionStatus.PENDING) {
+            completion.cancel(false);
+            return CompletableFuture.completedFuture(request);
+        }
+
+        // Another instance may be the one processing the request, so only the timeout ends the wait then.
+        long timeoutMillis = Math.min(wait.toMillis(), walletProperties.getAsync().getMaxWait().toMillis());
+        return completion.completeOnTimeout(null, timeoutMillis, TimeUnit.MILLISECONDS)
+                .thenApplyAsync(done -> getRequest(userId, walletId, requestId));
+    }
+}
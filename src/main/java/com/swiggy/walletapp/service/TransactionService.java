@@ -1,35 +1,53 @@
 package com.swiggy.walletapp.service;
 
-import com.swiggy.walletapp.dto.MoneyDto;
 import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.dto.TransactionPageDto;
 import com.swiggy.walletapp.dto.TransactionResponseDto;
-import com.swiggy.walletapp.entity.InterTransaction;
-import com.swiggy.walletapp.entity.IntraTransaction;
+import com.swiggy.walletapp.entity.LedgerEntryView;
 import com.swiggy.walletapp.entity.Wallet;
 import com.swiggy.walletapp.enums.Currency;
 import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.exception.InvalidPageRequestException;
 import com.swiggy.walletapp.exception.InvalidTransactionTypeException;
 import com.swiggy.walletapp.exception.NoTransactionsFoundException;
 import com.swiggy.walletapp.exception.UnauthorizedAccessException;
-import com.swiggy.walletapp.repository.InterTransactionRepository;
-import com.swiggy.walletapp.repository.IntraTransactionRepository;
+import com.swiggy.walletapp.exception.WalletNotFoundException;
+import com.swiggy.walletapp.repository.LedgerEntryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Service
 public class TransactionService {
 
-    private final IntraTransactionRepository intraTransactionRepository;
-    private final InterTransactionRepository interTransactionRepository;
-    private final MoneyConversionService moneyConversionService;
+    static final int MAX_PAGE_SIZE = 500;
+    private static final String CURSOR_SEPARATOR = ",";
+
+    private final LedgerEntryRepository ledgerEntryRepository;
     private final WalletService walletService;
+    private final WalletOperationRetry walletOperationRetry;
+    private final WalletLockManager walletLockManager;
+    private final WalletShardingService walletShardingService;
+    private final WalletGroupCommitter walletGroupCommitter;
 
     public void createTransaction(Long userId, Long walletId, TransactionDto transactionDto) {
+        if (walletGroupCommitter.isEnabled()) {
+            walletGroupCommitter.commit(userId, walletId, transactionDto);
+            return;
+        }
         switch (transactionDto.getTransactionType()) {
             case DEPOSIT:
                 deposit(userId, walletId, transactionDto);
@@ -45,83 +63,89 @@ public class TransactionService {
         }
     }
 
+    // Amounts are converted before any lock is taken, and the stripes are taken per attempt inside the retry, so
+    // neither a remote conversion nor a retry backoff ever runs while a stripe is held.
     private void withdrawal(Long userId, Long walletTd, TransactionDto transactionDto) {
-        Wallet wallet = walletService.withdraw(userId, walletTd, transactionDto.getCurrency(), transactionDto.getAmount());
-        MoneyDto money = new MoneyDto(transactionDto.getCurrency().toString(), transactionDto.getAmount());
-        MoneyDto convertedMoney = moneyConversionService.convertMoney(money, wallet.getCurrency().toString());
-        double convertedAmount = convertedMoney.getAmount();
-        Currency walletCurrency = wallet.getCurrency();
-
-        IntraTransaction intraTransaction = new IntraTransaction(convertedAmount, walletCurrency, TransactionType.WITHDRAWAL, userId);
-        intraTransactionRepository.save(intraTransaction);
+        Wallet.validateWithdrawalAmount(transactionDto.getAmount());
+        Currency currency = walletService.currencyOf(walletTd);
+        long amount = walletService.convert(transactionDto.getCurrency(), currency, transactionDto.getAmount());
+        walletOperationRetry.execute(walletTd, () -> walletLockManager.withLocks(List.of(walletTd), () -> {
+            walletService.withdraw(userId, walletTd, currency, amount);
+            return null;
+        }));
     }
 
     private void deposit(Long userId, Long walletId, TransactionDto transactionDto) {
-        Wallet wallet = walletService.deposit(userId, walletId, transactionDto.getCurrency(), transactionDto.getAmount());
-        MoneyDto money = new MoneyDto(transactionDto.getCurrency().toString(), transactionDto.getAmount());
-        MoneyDto convertedMoney = moneyConversionService.convertMoney(money, wallet.getCurrency().toString());
-        double convertedAmount = convertedMoney.getAmount();
-        Currency walletCurrency = wallet.getCurrency();
-
-        IntraTransaction intraTransaction = new IntraTransaction(convertedAmount, walletCurrency, TransactionType.DEPOSIT, userId);
-        intraTransactionRepository.save(intraTransaction);
+        Wallet.validateDepositAmount(transactionDto.getAmount());
+        Currency currency = walletService.currencyOf(walletId);
+        long amount = walletService.convert(transactionDto.getCurrency(), currency, transactionDto.getAmount());
+        walletOperationRetry.execute(walletId, () -> walletLockManager.withLocks(creditLocks(walletId), () -> {
+            walletService.deposit(userId, walletId, currency, amount);
+            return null;
+        }));
     }
 
     private void transfer(Long senderId, Long walletId, TransactionDto transactionDto) {
-        Wallet wallet = walletService.fetchUserWallet(senderId, walletId);
-        Currency senderCurrency = wallet.getCurrency();
-        double amount = transactionDto.getAmount();
-        Wallet recipientWallet = walletService.transfer(senderId, walletId, transactionDto.getAmount(), transactionDto.getRecipientWalletId());
-        MoneyDto money = new MoneyDto(senderCurrency.toString(), amount);
-        MoneyDto convertedMoney = moneyConversionService.convertMoney(money, recipientWallet.getCurrency().toString());
-        double convertedRecipientAmount = convertedMoney.getAmount();
-
-        InterTransaction interTransaction = new InterTransaction(convertedRecipientAmount, recipientWallet.getCurrency(), TransactionType.TRANSFER, senderId, recipientWallet.getUser().getId());
-        interTransactionRepository.save(interTransaction);
+        Wallet.validateWithdrawalAmount(transactionDto.getAmount());
+        Long recipientWalletId = transactionDto.getRecipientWalletId();
+        if (recipientWalletId == null)
+            throw new WalletNotFoundException("Recipient wallet not found", HttpStatus.NOT_FOUND);
+        long amount = transactionDto.getAmount();
+        long convertedAmount = walletService.convert(walletService.currencyOf(walletId), recipientCurrency(recipientWalletId), amount);
+        List<Long> walletIds = Stream.concat(Stream.of(walletId), creditLocks(recipientWalletId).stream()).toList();
+        walletOperationRetry.execute(walletId, () -> walletLockManager.withLocks(walletIds, () -> {
+            walletService.transfer(senderId, walletId, amount, recipientWalletId, convertedAmount);
+            return null;
+        }));
     }
 
-    public List<TransactionResponseDto> getTransactions(Long userId, Long walletId, TransactionType transactionType) {
-        checkUserAuthorization(userId, walletId);
-
-        if(transactionType != null)
-            return getTransactionsByTransactionType(userId, walletId, transactionType);
-
-        List<IntraTransaction> intraTransactions = intraTransactionRepository.findByUserId(userId);
-        List<InterTransaction> interTransactions = new ArrayList<>();
-        interTransactions.addAll(interTransactionRepository.findByRecipientId(userId));
-        interTransactions.addAll(interTransactionRepository.findBySenderId(userId));
+    private Currency recipientCurrency(Long recipientWalletId) {
+        try {
+            return walletService.currencyOf(recipientWalletId);
+        } catch (WalletNotFoundException e) {
+            throw new WalletNotFoundException("Recipient wallet not found", HttpStatus.NOT_FOUND);
+        }
+    }
 
-        return mapToTransactionResponse(intraTransactions, interTransactions);
+    private List<Long> creditLocks(Long walletId) {
+        if (walletId == null || walletShardingService.isSharded(walletId))
+            return List.of();
+        return List.of(walletId);
     }
 
-    public List<TransactionResponseDto> getTransactionsByTransactionType(Long userId, Long walletId, TransactionType transactionType) {
+    /**
+     * Returns one page of the wallet's history ordered by (timestamp, id). The cursor is the opaque position of the
+     * last entry of the previous page, so every page is a bounded index range scan however long the history is.
+     */
+    public TransactionPageDto getTransactions(Long userId, Long walletId, TransactionType transactionType, int limit, String after, Sort.Direction order) {
         checkUserAuthorization(userId, walletId);
-
-        List<InterTransaction> interTransactions = new ArrayList<>();
-        List<IntraTransaction> intraTransactions = new ArrayList<>();
-
-        if(transactionType == TransactionType.TRANSFER) {
-            interTransactions.addAll(interTransactionRepository.findByRecipientId(userId));
-            interTransactions.addAll(interTransactionRepository.findBySenderId(userId));
-        }
-        if(transactionType == TransactionType.DEPOSIT || transactionType == TransactionType.WITHDRAWAL)
-            intraTransactions = intraTransactionRepository.findByUserIdAndTransactionType(userId, transactionType);
-
-        return mapToTransactionResponse(intraTransactions, interTransactions);
+        if (limit < 1 || limit > MAX_PAGE_SIZE)
+            throw new InvalidPageRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+
+        ScrollPosition position = after == null ? ScrollPosition.keyset() : decodeCursor(after);
+        Sort sort = Sort.by(order, "timestamp", "id");
+        Window<LedgerEntryView> entries = transactionType == null
+                ? ledgerEntryRepository.findByWalletId(walletId, position, sort, Limit.of(limit))
+                : ledgerEntryRepository.findByWalletIdAndTransactionType(walletId, transactionType, position, sort, Limit.of(limit));
+        if (entries.isEmpty() && after == null)
+            throw new NoTransactionsFoundException("No transactions found for wallet", HttpStatus.NOT_FOUND);
+
+        String nextCursor = entries.hasNext() ? encodeCursor(entries.getContent().get(entries.size() - 1)) : null;
+        return new TransactionPageDto(entries.map(TransactionResponseDto::new).getContent(), nextCursor);
     }
 
-    private static List<TransactionResponseDto> mapToTransactionResponse(List<IntraTransaction> intraTransactions, List<InterTransaction> interTransactions) {
-        if(intraTransactions.isEmpty() && interTransactions.isEmpty())
-            throw new NoTransactionsFoundException("No transactions found for user", HttpStatus.NOT_FOUND);
+    private static String encodeCursor(LedgerEntryView entry) {
+        String position = entry.getTimestamp() + CURSOR_SEPARATOR + entry.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
 
-        List<TransactionResponseDto> transactionResponse = new ArrayList<>();
-        for (IntraTransaction intraTransaction : intraTransactions) {
-            transactionResponse.add(new TransactionResponseDto(intraTransaction));
-        }
-        for (InterTransaction interTransaction : interTransactions) {
-            transactionResponse.add(new TransactionResponseDto(interTransaction));
+    private static ScrollPosition decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(CURSOR_SEPARATOR, 2);
+            return ScrollPosition.forward(Map.of("timestamp", LocalDateTime.parse(position[0]), "id", Long.parseLong(position[1])));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidPageRequestException("Invalid cursor", HttpStatus.BAD_REQUEST);
         }
-        return transactionResponse;
     }
 
     private void checkUserAuthorization(Long userId, Long walletId) {
@@ -8,6 +8,7 @@ import com.swiggy.walletapp.exception.UserAlreadyExistsException;
 import com.swiggy.walletapp.repository.UserRepository;
 import com.swiggy.walletapp.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -29,7 +30,11 @@ public class UserService {
             throw new UserAlreadyExistsException("User already exists", HttpStatus.CONFLICT);
         });
         user.encodePassword(passwordEncoder);
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new UserAlreadyExistsException("User already exists", HttpStatus.CONFLICT);
+        }
         Wallet wallet = new Wallet(user, defaultCurrency);
         walletRepository.save(wallet);
     }
@@ -0,0 +1,90 @@
+package com.swiggy.walletapp.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.dto.WalletResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Per-user wallet listings, bounded by size and expired after a TTL. Writers evict the affected users once their
+ * transaction commits, so a rolled-back write never touches the cache. An eviction drops any load of the same user
+ * that is in flight, so a listing read before the commit is handed to its caller but never stored.
+ * <p>
+ * Evictions are local to this instance. With several replicas a write on one leaves the others serving the old
+ * listing until the TTL expires, so the cache is off by default and only meant for single-instance deployments.
+ * <p>
+ * Listings load on the calling thread, outside the cache's internal locks, so a slow query for one user never blocks
+ * reads of other users.
+ */
+@Component
+public class WalletBalanceCache {
+
+    static final String CACHE_NAME = "wallet.balances";
+
+    private final boolean enabled;
+    private final AsyncCache<Long, List<WalletResponseDto>> cache;
+
+    public WalletBalanceCache(WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        WalletProperties.Cache properties = walletProperties.getCache();
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxUsers())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+    }
+
+    public List<WalletResponseDto> get(Long userId, Function<Long, List<WalletResponseDto>> loader) {
+        if (!enabled)
+            return loader.apply(userId);
+        CompletableFuture<List<WalletResponseDto>> mine = new CompletableFuture<>();
+        CompletableFuture<List<WalletResponseDto>> listing = cache.get(userId, (id, executor) -> mine);
+        if (listing == mine) {
+            try {
+                mine.complete(loader.apply(userId));
+            } catch (RuntimeException e) {
+                // A failed future is dropped from the cache, so the next read loads again.
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return listing.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    public void evictAfterCommit(Long... userIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userIds);
+            }
+        });
+    }
+
+    private void evict(Long... userIds) {
+        for (Long userId : userIds) {
+            if (userId != null)
+                cache.synchronous().invalidate(userId);
+        }
+    }
+}
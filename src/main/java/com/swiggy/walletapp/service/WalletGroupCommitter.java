@@ -0,0 +1,221 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.exception.TransactionOutcomeUnknownException;
+import com.swiggy.walletapp.exception.WalletBusyException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Opt-in group commit for single transactions. Request threads validate and convert their transaction, hand it to a
+ * bounded queue and wait. One writer thread takes whatever is queued, up to {@code maxBatchSize} or {@code maxWait}
+ * after the first arrival, and applies the group in a single database transaction, so the balance updates and ledger
+ * inserts of many requests share one commit and go out as JDBC batches. Each caller returns only after the group has
+ * committed, and each transaction still commits atomically with its own ledger rows.
+ */
+@Slf4j
+@Component
+public class WalletGroupCommitter implements AutoCloseable {
+
+    private static final String METRIC = "wallet.group-commit";
+
+    private final BulkTransactionService bulkTransactionService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Duration timeout;
+    private final BlockingQueue<PendingTransaction> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final DistributionSummary batchSize;
+    private final MeterRegistry meterRegistry;
+
+    public WalletGroupCommitter(BulkTransactionService bulkTransactionService, WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        WalletProperties.GroupCommit groupCommit = walletProperties.getGroupCommit();
+        this.bulkTransactionService = bulkTransactionService;
+        this.enabled = groupCommit.isEnabled();
+        this.maxBatchSize = groupCommit.getMaxBatchSize();
+        this.maxWaitNanos = groupCommit.getMaxWait().toNanos();
+        this.timeout = groupCommit.getTimeout();
+        this.queue = new ArrayBlockingQueue<>(groupCommit.getQueueCapacity());
+        this.meterRegistry = meterRegistry;
+        this.batchSize = DistributionSummary.builder(METRIC + ".batch.size").register(meterRegistry);
+        Gauge.builder(METRIC + ".queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        this.writer = new Thread(this::run, "wallet-group-commit");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the transaction for the next group and blocks until that group has committed. Failures are rethrown with
+     * the same exceptions the unbatched path raises. A transaction still queued after {@code timeout} is withdrawn and
+     * rejected as busy; one the writer has already taken may still commit, so it is waited for up to another
+     * {@code timeout} and then reported as having an unknown outcome.
+     */
+    public void commit(Long userId, Long walletId, TransactionDto transactionDto) {
+        BulkTransactionService.PreparedTransaction transaction = bulkTransactionService.prepare(userId, walletId, transactionDto);
+        PendingTransaction pending = new PendingTransaction(transaction, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new WalletBusyException("Wallet is busy, please retry", HttpStatus.CONFLICT);
+        }
+
+        BulkTransactionService.Outcome outcome;
+        try {
+            outcome = pending.result().get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                throw new WalletBusyException("Wallet is busy, please retry", HttpStatus.CONFLICT);
+            }
+            outcome = awaitTaken(pending.result());
+        } catch (InterruptedException e) {
+            try {
+                if (queue.remove(pending)) {
+                    throw new WalletBusyException("Interrupted while waiting for wallet", HttpStatus.CONFLICT, e);
+                }
+                outcome = awaitTaken(pending.result());
+            } finally {
+                Thread.currentThread().interrupt();
+            }
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        }
+        if (outcome.failure() != null) {
+            throw outcome.failure();
+        }
+    }
+
+    /**
+     * Waits for a transaction the writer has already taken. Interrupts are deferred rather than obeyed, since the
+     * caller has to learn whether the transaction committed.
+     */
+    private BulkTransactionService.Outcome awaitTaken(CompletableFuture<BulkTransactionService.Outcome> result) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return result.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (TimeoutException e) {
+                    log.error("Group commit writer has not finished a transaction after {}", timeout.multipliedBy(2));
+                    throw new TransactionOutcomeUnknownException(
+                            "Transaction outcome unknown, check the wallet's transactions before retrying", HttpStatus.GATEWAY_TIMEOUT);
+                } catch (ExecutionException e) {
+                    throw rethrow(e);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static RuntimeException rethrow(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new CompletionException(e.getCause());
+    }
+
+    private void run() {
+        List<PendingTransaction> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingTransaction first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    long deadline = System.nanoTime() + maxWaitNanos;
+                    while (batch.size() < maxBatchSize) {
+                        if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                            continue;
+                        }
+                        long remaining = deadline - System.nanoTime();
+                        PendingTransaction next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    flush(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                } catch (RuntimeException e) {
+                    log.error("Group commit writer failed to complete a batch", e);
+                } finally {
+                    batch.forEach(pending -> pending.result().completeExceptionally(
+                            new WalletBusyException("Wallet is busy, please retry", HttpStatus.CONFLICT)));
+                    batch.clear();
+                }
+            }
+        } catch (Throwable e) {
+            log.error("Group commit writer stopped, rejecting group commits until restart", e);
+            throw e;
+        } finally {
+            // Whatever stopped the writer, nothing queued can be committed any more.
+            running = false;
+            List<PendingTransaction> abandoned = new ArrayList<>();
+            queue.drainTo(abandoned);
+            abandoned.forEach(pending -> pending.result().completeExceptionally(
+                    new WalletBusyException("Wallet is busy, please retry", HttpStatus.CONFLICT)));
+        }
+    }
+
+    private void flush(List<PendingTransaction> batch) {
+        batchSize.record(batch.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // apply turns a group that cannot commit into a failed outcome for every item rather than throwing.
+        List<BulkTransactionService.Outcome> outcomes = bulkTransactionService.apply(
+                batch.stream().map(PendingTransaction::transaction).toList());
+        boolean committed = outcomes.stream().anyMatch(outcome -> outcome.failure() == null);
+        sample.stop(latency(committed ? "success" : "failure"));
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(outcomes.get(i));
+        }
+    }
+
+    private Timer latency(String outcome) {
+        return Timer.builder(METRIC + ".batch.latency").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private record PendingTransaction(BulkTransactionService.PreparedTransaction transaction,
+                                      CompletableFuture<BulkTransactionService.Outcome> result) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.exception.WalletBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a transactional wallet operation when it loses a concurrency race (stale version, lock timeout or
+ * deadlock). Must be called outside the transaction so that every attempt starts from a fresh one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WalletOperationRetry {
+
+    static final String CONFLICTS_METRIC = "wallet.concurrency.conflicts";
+    static final String EXHAUSTED_METRIC = "wallet.concurrency.retries.exhausted";
+
+    private final WalletProperties walletProperties;
+    private final MeterRegistry meterRegistry;
+
+    public <T> T execute(Long walletId, Supplier<T> operation) {
+        WalletProperties.Retry retry = walletProperties.getRetry();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (ConcurrencyFailureException e) {
+                String wallet = conflictingWallet(e, walletId);
+                counter(CONFLICTS_METRIC, wallet).increment();
+                if (attempt >= retry.getMaxAttempts()) {
+                    counter(EXHAUSTED_METRIC, wallet).increment();
+                    throw new WalletBusyException("Wallet is busy, please retry", HttpStatus.CONFLICT, e);
+                }
+
+                Duration backoff = backoff(retry, attempt);
+                log.debug("Concurrent update on wallet {}, retrying attempt {} in {}", wallet, attempt + 1, backoff);
+                sleep(backoff, e);
+            }
+        }
+    }
+
+    static Duration backoff(WalletProperties.Retry retry, int attempt) {
+        long ceiling = Math.min(retry.getMaxBackoff().toNanos(), retry.getInitialBackoff().toNanos() << Math.min(attempt - 1, 20));
+        long half = ceiling / 2;
+        return Duration.ofNanos(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private static String conflictingWallet(ConcurrencyFailureException e, Long walletId) {
+        if (e instanceof ObjectOptimisticLockingFailureException optimisticFailure && optimisticFailure.getIdentifier() != null) {
+            return optimisticFailure.getIdentifier().toString();
+        }
+        return String.valueOf(walletId);
+    }
+
+    private Counter counter(String name, String wallet) {
+        return Counter.builder(name).tag("wallet", wallet).register(meterRegistry);
+    }
+
+    private static void sleep(Duration backoff, ConcurrencyFailureException conflict) {
+        try {
+            Thread.sleep(backoff.toMillis(), backoff.toNanosPart() % 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.swiggy.walletapp.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, for the current HTTP request, which wallets the caller has already been verified to own, so repeated
+ * ownership checks within one request do not go back to the database. Outside a request nothing is remembered.
+ */
+@Component
+public class WalletOwnershipMemo {
+
+    private static final String ATTRIBUTE = WalletOwnershipMemo.class.getName();
+
+    public boolean isVerified(Long userId, Long walletId) {
+        Set<List<Long>> verified = verified(false);
+        return verified != null && verified.contains(List.of(userId, walletId));
+    }
+
+    public void remember(Long userId, Long walletId) {
+        Set<List<Long>> verified = verified(true);
+        if (verified != null)
+            verified.add(List.of(userId, walletId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<List<Long>> verified(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null)
+            return null;
+        Object verified = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (verified == null && create) {
+            verified = ConcurrentHashMap.<List<Long>>newKeySet();
+            attributes.setAttribute(ATTRIBUTE, verified, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Set<List<Long>>) verified;
+    }
+}
@@ -1,22 +1,32 @@
 package com.swiggy.walletapp.service;
 
-import com.swiggy.walletapp.dto.MoneyDto;
 import com.swiggy.walletapp.dto.WalletRequestDto;
 import com.swiggy.walletapp.dto.WalletResponseDto;
+import com.swiggy.walletapp.entity.LedgerEntry;
 import com.swiggy.walletapp.entity.User;
 import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.entity.WalletOwnerView;
 import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.LedgerEntryType;
+import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.exception.InsufficientFundsException;
 import com.swiggy.walletapp.exception.UnauthorizedAccessException;
 import com.swiggy.walletapp.exception.UserNotFoundException;
 import com.swiggy.walletapp.exception.WalletNotFoundException;
+import com.swiggy.walletapp.repository.LedgerEntryRepository;
 import com.swiggy.walletapp.repository.UserRepository;
 import com.swiggy.walletapp.repository.WalletRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
@@ -25,62 +35,171 @@ public class WalletService {
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
     private final MoneyConversionService moneyConversionService;
+    private final WalletShardingService walletShardingService;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final WalletOwnershipMemo walletOwnershipMemo;
+    private final WalletBalanceCache walletBalanceCache;
+    // Currencies never change once a wallet exists, so entries need no invalidation.
+    private final Cache<Long, Currency> walletCurrencies = Caffeine.newBuilder().maximumSize(100_000).build();
 
     public boolean isUnauthorizedUser(Long userId, Long walletId) {
-        Wallet wallet = walletRepository.findById(walletId).orElseThrow(() -> new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND));
-        User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found", HttpStatus.NOT_FOUND));
-        return !wallet.isOwnedBy(user);
+        if (walletOwnershipMemo.isVerified(userId, walletId))
+            return false;
+        if (walletRepository.existsByIdAndUserId(walletId, userId)) {
+            walletOwnershipMemo.remember(userId, walletId);
+            return false;
+        }
+        checkWalletAndUserExist(userId, walletId);
+        return true;
     }
 
+    /**
+     * Loads the wallet and verifies ownership in one {@code WHERE id = ? AND user_id = ?} query. Only when that finds
+     * nothing are the wallet and user looked up separately, to report which of them is missing.
+     */
     public Wallet fetchUserWallet(Long userId, Long walletId) {
-        if(isUnauthorizedUser(userId, walletId))
-            throw new UnauthorizedAccessException("Unauthorized access to wallet", HttpStatus.NOT_FOUND);
+        Wallet wallet = walletRepository.findByIdAndUserId(walletId, userId).orElseThrow(() -> {
+            checkWalletAndUserExist(userId, walletId);
+            return new UnauthorizedAccessException("Unauthorized access to wallet", HttpStatus.NOT_FOUND);
+        });
+        walletOwnershipMemo.remember(userId, walletId);
+        return wallet;
+    }
 
-        return walletRepository.findById(walletId)
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND));
+    /**
+     * The wallet's currency, read once per wallet, so callers can convert amounts before taking any lock.
+     */
+    public Currency currencyOf(Long walletId) {
+        Currency currency = walletCurrencies.get(walletId, id -> walletRepository.findOwnersByIdIn(List.of(id)).stream()
+                .findFirst()
+                .map(WalletOwnerView::getCurrency)
+                .orElse(null));
+        if (currency == null)
+            throw new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND);
+        return currency;
+    }
+
+    private void checkWalletAndUserExist(Long userId, Long walletId) {
+        if (!walletRepository.existsById(walletId))
+            throw new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND);
+        if (!userRepository.existsById(userId))
+            throw new UserNotFoundException("User not found", HttpStatus.NOT_FOUND);
     }
 
     @Transactional
-    public Wallet deposit(Long userId, Long walletId, Currency fromCurrency, double amount) {
+    public void deposit(Long userId, Long walletId, Currency fromCurrency, long amount) {
+        Wallet.validateDepositAmount(amount);
         Wallet wallet = fetchUserWallet(userId, walletId);
-        Currency toCurrency = wallet.getCurrency();
-        MoneyDto money = new MoneyDto(fromCurrency.toString(), amount);
-        MoneyDto convertedMoney = moneyConversionService.convertMoney(money, toCurrency.toString());
-        wallet.deposit(convertedMoney.getAmount());
-        return walletRepository.save(wallet);
+        long convertedAmount = convert(fromCurrency, wallet.getCurrency(), amount);
+        if (wallet.isSharded()) {
+            walletShardingService.credit(wallet, convertedAmount);
+        } else if (walletRepository.credit(walletId, convertedAmount) == 0) {
+            throw new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND);
+        }
+        ledgerEntryRepository.save(new LedgerEntry(wallet, LedgerEntryType.CREDIT, TransactionType.DEPOSIT, convertedAmount, null));
+        walletBalanceCache.evictAfterCommit(userId);
     }
 
     @Transactional
-    public Wallet withdraw(Long userId, Long walletId, Currency fromCurrency, double amount) {
+    public void withdraw(Long userId, Long walletId, Currency fromCurrency, long amount) {
+        Wallet.validateWithdrawalAmount(amount);
         Wallet wallet = fetchUserWallet(userId, walletId);
-        Currency toCurrency = wallet.getCurrency();
-        MoneyDto money = new MoneyDto(fromCurrency.toString(), amount);
-        MoneyDto convertedMoney = moneyConversionService.convertMoney(money, toCurrency.toString());
-        wallet.withdraw(convertedMoney.getAmount());
-        return walletRepository.save(wallet);
+        long convertedAmount = convert(fromCurrency, wallet.getCurrency(), amount);
+        if (walletRepository.debit(walletId, convertedAmount) == 0 && !(wallet.isSharded() && rebalanceAndDebit(walletId, convertedAmount))) {
+            throw new InsufficientFundsException("Insufficient funds", HttpStatus.BAD_REQUEST);
+        }
+        ledgerEntryRepository.save(new LedgerEntry(wallet, LedgerEntryType.DEBIT, TransactionType.WITHDRAWAL, convertedAmount, null));
+        walletBalanceCache.evictAfterCommit(userId);
     }
 
+    /**
+     * Moves {@code amount} out of the sender wallet and {@code convertedAmount}, the same money in the recipient
+     * wallet's currency, into the recipient wallet. Callers convert before taking any lock, so no remote conversion
+     * runs while the wallet rows or stripes are held.
+     */
     @Transactional
-    public Wallet transfer(Long userId, Long senderWalletId, double amount, Long recipientWalletId) {
-        Wallet senderWallet = fetchUserWallet(userId, senderWalletId);
-        Currency senderCurrency = senderWallet.getCurrency();
-        withdraw(userId, senderWalletId, senderCurrency, amount);
-
-        Wallet recipientWallet = walletRepository.findById(recipientWalletId).orElseThrow(() -> new WalletNotFoundException("Recipient wallet not found", HttpStatus.NOT_FOUND));
-        User recipientUser = userRepository.findByWallet(recipientWallet).orElseThrow(() -> new UserNotFoundException("User not found", HttpStatus.NOT_FOUND));
-        return deposit(recipientUser.getId(), recipientWalletId, senderCurrency, amount);
+    public void transfer(Long userId, Long senderWalletId, long amount, Long recipientWalletId, long convertedAmount) {
+        Wallet.validateWithdrawalAmount(amount);
+        if (recipientWalletId == null)
+            throw new WalletNotFoundException("Recipient wallet not found", HttpStatus.NOT_FOUND);
+        Map<Long, WalletOwnerView> owners = walletRepository.findOwnersByIdIn(List.of(senderWalletId, recipientWalletId)).stream()
+                .collect(Collectors.toMap(WalletOwnerView::getId, Function.identity()));
+        WalletOwnerView sender = owners.get(senderWalletId);
+        if (sender == null)
+            throw new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND);
+        if (!userId.equals(sender.getUserId())) {
+            if (!userRepository.existsById(userId))
+                throw new UserNotFoundException("User not found", HttpStatus.NOT_FOUND);
+            throw new UnauthorizedAccessException("Unauthorized access to wallet", HttpStatus.NOT_FOUND);
+        }
+        WalletOwnerView recipient = owners.get(recipientWalletId);
+        if (recipient == null)
+            throw new WalletNotFoundException("Recipient wallet not found", HttpStatus.NOT_FOUND);
+        if (recipient.getUserId() == null)
+            throw new UserNotFoundException("User not found", HttpStatus.NOT_FOUND);
+
+        // A sharded recipient is credited through one of its shard rows, so its wallet row is left unlocked.
+        boolean lockRecipient = !walletShardingService.isSharded(recipientWalletId);
+        List<Long> lockIds = lockRecipient ? List.of(senderWalletId, recipientWalletId) : List.of(senderWalletId);
+        Map<Long, Wallet> lockedWallets = walletRepository.findAllByIdForUpdate(lockIds).stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+        Wallet senderWallet = lockedWallets.get(senderWalletId);
+        Wallet recipientWallet = lockRecipient ? lockedWallets.get(recipientWalletId) : walletRepository.findById(recipientWalletId).orElse(null);
+        if (senderWallet == null || recipientWallet == null)
+            throw new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND);
+
+        if (senderWallet.isSharded() && senderWallet.getBalance() < amount) {
+            long drained = walletShardingService.drainShards(senderWalletId);
+            if (drained > 0)
+                senderWallet.deposit(drained);
+        }
+        senderWallet.withdraw(amount);
+        if (lockRecipient) {
+            recipientWallet.deposit(convertedAmount);
+        } else if (recipientWallet.isSharded()) {
+            walletShardingService.credit(recipientWallet, convertedAmount);
+        } else {
+            walletRepository.credit(recipientWalletId, convertedAmount);
+        }
+        ledgerEntryRepository.saveAll(List.of(
+                new LedgerEntry(senderWallet, LedgerEntryType.DEBIT, TransactionType.TRANSFER, amount, recipientWalletId),
+                new LedgerEntry(recipientWallet, LedgerEntryType.CREDIT, TransactionType.TRANSFER, convertedAmount, senderWalletId)));
+        walletBalanceCache.evictAfterCommit(userId, recipientWallet.getUser().getId());
     }
 
     public void createWallet(Long userId, WalletRequestDto walletRequestDto) {
         User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found", HttpStatus.NOT_FOUND));
         Wallet wallet = new Wallet(user, walletRequestDto.getCurrency());
         walletRepository.save(wallet);
+        walletBalanceCache.evictAfterCommit(userId);
     }
 
     public List<WalletResponseDto> getWallets(Long userId) {
+        return walletBalanceCache.get(userId, this::loadWallets);
+    }
+
+    private List<WalletResponseDto> loadWallets(Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found", HttpStatus.NOT_FOUND));
-        return walletRepository.findAllByUser(user).stream()
-                .map(WalletResponseDto::new)
+        List<Wallet> wallets = walletRepository.findAllByUser(user);
+        List<Long> shardedWalletIds = wallets.stream().filter(Wallet::isSharded).map(Wallet::getId).toList();
+        Map<Long, Long> shardBalances = shardedWalletIds.isEmpty() ? Map.of() : walletShardingService.shardBalances(shardedWalletIds);
+        return wallets.stream()
+                .map(wallet -> wallet.isSharded()
+                        ? new WalletResponseDto(wallet, wallet.getBalance() + shardBalances.getOrDefault(wallet.getId(), 0L))
+                        : new WalletResponseDto(wallet))
                 .toList();
     }
+
+    private boolean rebalanceAndDebit(Long walletId, long amount) {
+        walletRepository.findAllByIdForUpdate(List.of(walletId));
+        long drained = walletShardingService.drainShards(walletId);
+        if (drained > 0) {
+            walletRepository.credit(walletId, drained);
+        }
+        return walletRepository.debit(walletId, amount) > 0;
+    }
+
+    public long convert(Currency fromCurrency, Currency toCurrency, long amount) {
+        return moneyConversionService.convert(fromCurrency, toCurrency, amount);
+    }
 }
@@ -0,0 +1,154 @@
+package com.swiggy.walletapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.entity.WalletBalanceShard;
+import com.swiggy.walletapp.exception.WalletNotFoundException;
+import com.swiggy.walletapp.repository.WalletBalanceShardRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Spreads credits to hot wallets over sub-balance rows so that parallel inbound transfers do not all queue on the
+ * wallet row. The visible balance of a sharded wallet is its own balance plus the sum of its shards; debits are
+ * taken from the wallet balance and fall back to sweeping every shard into it.
+ * <p>
+ * Lock order is always wallet rows (ascending id) before shard rows, which keeps sharded and unsharded paths
+ * deadlock free against each other.
+ */
+@Slf4j
+@Service
+public class WalletShardingService {
+
+    private final WalletRepository walletRepository;
+    private final WalletBalanceShardRepository walletBalanceShardRepository;
+    private final WalletProperties walletProperties;
+    private final TransactionTemplate transactionTemplate;
+    // Only decides which wallet rows a caller locks up front. Another instance may (un)shard a wallet at any time, so
+    // entries expire, and where the money goes is always decided from the row read inside the transaction.
+    private final Cache<Long, Integer> shardCounts;
+
+    public WalletShardingService(WalletRepository walletRepository, WalletBalanceShardRepository walletBalanceShardRepository,
+                                 WalletProperties walletProperties, TransactionTemplate transactionTemplate) {
+        this.walletRepository = walletRepository;
+        this.walletBalanceShardRepository = walletBalanceShardRepository;
+        this.walletProperties = walletProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.shardCounts = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(walletProperties.getSharding().getShardCountTtl())
+                .build();
+    }
+
+    public boolean isSharded(Long walletId) {
+        if (walletId == null) {
+            return false;
+        }
+        return shardCounts.get(walletId, id -> walletRepository.findShardCountById(id).orElse(0)) > 0;
+    }
+
+    /**
+     * Credits the wallet through one of its shard rows, or through the wallet row once the wallet read in this
+     * transaction is no longer sharded or its shard rows are gone.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void credit(Wallet wallet, long amount) {
+        if (!wallet.isSharded()) {
+            walletRepository.credit(wallet.getId(), amount);
+            return;
+        }
+        int shard = ThreadLocalRandom.current().nextInt(wallet.getShardCount());
+        if (walletBalanceShardRepository.credit(wallet.getId(), shard, amount) == 0) {
+            walletRepository.credit(wallet.getId(), amount);
+        }
+    }
+
+    /**
+     * Empties every shard of the wallet and returns what they held. The caller must already hold the wallet row
+     * lock and is responsible for adding the result to the wallet balance.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long drainShards(Long walletId) {
+        long drained = walletBalanceShardRepository.findAllByWalletIdForUpdate(walletId).stream()
+                .mapToLong(WalletBalanceShard::getBalance)
+                .sum();
+        if (drained > 0) {
+            walletBalanceShardRepository.clearBalances(walletId);
+        }
+        return drained;
+    }
+
+    public Map<Long, Long> shardBalances(Collection<Long> walletIds) {
+        return walletBalanceShardRepository.sumBalancesByWalletId(walletIds).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> ((Number) row[1]).longValue()));
+    }
+
+    public void enableSharding(Long walletId) {
+        int shards = walletProperties.getSharding().getShards();
+        Integer shardCount = transactionTemplate.execute(status -> {
+            Wallet wallet = lockWallet(walletId);
+            if (wallet.isSharded()) {
+                return wallet.getShardCount();
+            }
+            walletBalanceShardRepository.saveAll(IntStream.range(0, shards)
+                    .mapToObj(shard -> new WalletBalanceShard(walletId, shard))
+                    .toList());
+            wallet.enableSharding(shards);
+            log.info("Sharded balance of wallet {} across {} rows", walletId, shards);
+            return shards;
+        });
+        shardCounts.put(walletId, shardCount);
+    }
+
+    public void disableSharding(Long walletId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Wallet wallet = lockWallet(walletId);
+            if (!wallet.isSharded()) {
+                return;
+            }
+            long drained = drainShards(walletId);
+            if (drained > 0) {
+                wallet.deposit(drained);
+            }
+            walletBalanceShardRepository.deleteAllByWalletId(walletId);
+            wallet.disableSharding();
+            log.info("Folded sharded balance of wallet {} back into the wallet row", walletId);
+        });
+        shardCounts.put(walletId, 0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void shardConfiguredWallets() {
+        for (Long walletId : walletProperties.getSharding().getHotWallets()) {
+            try {
+                enableSharding(walletId);
+            } catch (WalletNotFoundException e) {
+                log.warn("Configured hot wallet {} does not exist, skipping sharding", walletId);
+            }
+        }
+    }
+
+    private Wallet lockWallet(Long walletId) {
+        List<Wallet> wallets = walletRepository.findAllByIdForUpdate(List.of(walletId));
+        if (wallets.isEmpty()) {
+            throw new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND);
+        }
+        return wallets.get(0);
+    }
+}
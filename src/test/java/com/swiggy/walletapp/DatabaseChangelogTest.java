@@ -0,0 +1,136 @@
+package com.swiggy.walletapp;
+
+import liquibase.Liquibase;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Liquibase owns the schema and Hibernate never issues DDL outside tests, so the changelog itself has to carry the
+ * indexes and constraints the repositories depend on.
+ */
+public class DatabaseChangelogTest {
+
+    private Connection connection;
+
+    // Changesets up to and including the one that converts the legacy transaction tables to minor units.
+    private static final int CHANGESETS_BEFORE_LEDGER_BACKFILL = 9;
+
+    @BeforeEach
+    void connect() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:changelog-" + System.nanoTime() + ";MODE=PostgreSQL", "sa", "");
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void changelogCreatesIndexesForRepositoryFinders() throws Exception {
+        liquibase().update("");
+        Set<String> indexes = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT LOWER(index_name) FROM information_schema.indexes "
+                     + "UNION SELECT LOWER(constraint_name) FROM information_schema.table_constraints")) {
+            while (resultSet.next()) {
+                indexes.add(resultSet.getString(1));
+            }
+        }
+
+        assertTrue(indexes.containsAll(Set.of(
+                "user_username_uk",
+                "wallet_user_id_idx",
+                "wallet_balance_shard_wallet_shard_uk",
+                "ledger_entry_wallet_timestamp_idx",
+                "ledger_entry_wallet_type_timestamp_idx",
+                "transaction_request_status_idx",
+                "idempotency_record_user_key_uk",
+                "idempotency_record_created_at_idx")), "missing from " + indexes);
+    }
+
+    @Test
+    void changelogRejectsDuplicateUsernames() throws Exception {
+        liquibase().update("");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO \"USER\" (username, password) VALUES ('alice', 'secret')");
+
+            assertThrows(SQLException.class,
+                    () -> statement.execute("INSERT INTO \"USER\" (username, password) VALUES ('alice', 'other')"));
+        }
+    }
+
+    @Test
+    void changelogBackfillsTheLedgerAndKeepsTheLegacyTables() throws Exception {
+        liquibase().update(CHANGESETS_BEFORE_LEDGER_BACKFILL, "");
+        try (Statement statement = connection.createStatement()) {
+            insertLegacyRows(statement);
+
+            liquibase().update("");
+
+            assertEquals(List.of("10 CREDIT 500 INR", "10 DEBIT 100 USD", "20 CREDIT 100 USD"),
+                    rows(statement, "SELECT wallet_id, entry_type, amount, currency FROM ledger_entry ORDER BY id"));
+            assertEquals(List.of("1"), rows(statement, "SELECT COUNT(*) FROM legacy_intra_transaction"));
+            assertEquals(List.of("1"), rows(statement, "SELECT COUNT(*) FROM legacy_inter_transaction"));
+        }
+    }
+
+    @Test
+    void changelogFailsRatherThanDropUnattributableLegacyTransactions() throws Exception {
+        liquibase().update(CHANGESETS_BEFORE_LEDGER_BACKFILL, "");
+        try (Statement statement = connection.createStatement()) {
+            insertLegacyRows(statement);
+            statement.execute("INSERT INTO intra_transaction (amount, currency, transaction_type, user_id, timestamp) "
+                    + "VALUES (700, 'EUR', 'DEPOSIT', 1, TIMESTAMP '2024-01-03 00:00:00')");
+
+            assertThrows(LiquibaseException.class, () -> liquibase().update(""));
+        }
+    }
+
+    private Liquibase liquibase() throws LiquibaseException {
+        return new Liquibase("db/changelog/db.changelog-master.yaml", new ClassLoaderResourceAccessor(),
+                DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection)));
+    }
+
+    private static void insertLegacyRows(Statement statement) throws SQLException {
+        statement.execute("INSERT INTO \"USER\" (id, username, password) VALUES (1, 'alice', 'secret'), (2, 'bob', 'secret')");
+        statement.execute("INSERT INTO wallet (id, balance, currency, user_id) VALUES (10, 0, 'INR', 1), (20, 0, 'USD', 2)");
+        statement.execute("INSERT INTO intra_transaction (amount, currency, transaction_type, user_id, timestamp) "
+                + "VALUES (500, 'INR', 'DEPOSIT', 1, TIMESTAMP '2024-01-01 00:00:00')");
+        statement.execute("INSERT INTO inter_transaction (amount, currency, transaction_type, sender_id, recipient_id, timestamp) "
+                + "VALUES (100, 'USD', 'TRANSFER', 1, 2, TIMESTAMP '2024-01-02 00:00:00')");
+    }
+
+    private static List<String> rows(Statement statement, String query) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery(query)) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                List<String> values = new ArrayList<>();
+                for (int column = 1; column <= columns; column++) {
+                    values.add(resultSet.getString(column));
+                }
+                rows.add(String.join(" ", values));
+            }
+        }
+        return rows;
+    }
+}
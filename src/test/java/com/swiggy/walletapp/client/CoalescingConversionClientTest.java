@@ -0,0 +1,92 @@
+package com.swiggy.walletapp.client;
+
+import com.swiggy.walletapp.config.ConversionProperties;
+import com.swiggy.walletapp.dto.MoneyConversionRequest;
+import com.swiggy.walletapp.dto.MoneyDto;
+import com.swiggy.walletapp.exception.ConversionUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class CoalescingConversionClientTest {
+
+    private ConversionClient delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private ConversionProperties.Coalescer coalescer;
+    private CoalescingConversionClient client;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ConversionClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new ConversionProperties.Coalescer();
+        coalescer.setMaxBatchSize(3);
+        coalescer.setMaxWait(Duration.ofMillis(50));
+        when(delegate.convertMany(anyList())).thenAnswer(invocation -> {
+            List<MoneyConversionRequest> requests = invocation.getArgument(0);
+            return CompletableFuture.completedFuture(requests.stream()
+                    .map(request -> new MoneyDto(request.getTo_currency(), request.getFrom().getAmount() * 83.0))
+                    .toList());
+        });
+        client = new CoalescingConversionClient(delegate, coalescer, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void convertMergesConversionsIssuedWithinMaxWaitIntoOneBatch() {
+        CompletableFuture<MoneyDto> first = client.convert(new MoneyDto("USD", 1.0), "INR");
+        CompletableFuture<MoneyDto> second = client.convert(new MoneyDto("USD", 2.0), "INR");
+
+        assertEquals(new MoneyDto("INR", 83.0), first.join());
+        assertEquals(new MoneyDto("INR", 166.0), second.join());
+        verify(delegate, times(1)).convertMany(List.of(
+                new MoneyConversionRequest(new MoneyDto("USD", 1.0), "INR"),
+                new MoneyConversionRequest(new MoneyDto("USD", 2.0), "INR")));
+        verify(delegate, never()).convert(any(), any());
+        assertEquals(1.0, meterRegistry.get("conversion.coalescer.batches").tag("trigger", "time").counter().count());
+    }
+
+    @Test
+    void convertSendsBatchAsSoonAsItIsFull() {
+        coalescer.setMaxWait(Duration.ofMinutes(1));
+        client = new CoalescingConversionClient(delegate, coalescer, meterRegistry);
+
+        List<CompletableFuture<MoneyDto>> conversions = IntStream.rangeClosed(1, 3)
+                .mapToObj(i -> client.convert(new MoneyDto("USD", i), "INR"))
+                .toList();
+
+        conversions.forEach(conversion -> assertTrue(conversion.isDone()));
+        assertEquals(1.0, meterRegistry.get("conversion.coalescer.batches").tag("trigger", "size").counter().count());
+        assertEquals(3.0, meterRegistry.get("conversion.coalescer.batch.size").summary().max());
+    }
+
+    @Test
+    void convertFailsEveryConversionInBatchWhenBatchFails() {
+        reset(delegate);
+        when(delegate.convertMany(anyList())).thenReturn(CompletableFuture.failedFuture(
+                new ConversionUnavailableException("Currency conversion service unavailable", HttpStatus.SERVICE_UNAVAILABLE)));
+
+        CompletableFuture<MoneyDto> first = client.convert(new MoneyDto("USD", 1.0), "INR");
+        CompletableFuture<MoneyDto> second = client.convert(new MoneyDto("EUR", 1.0), "INR");
+
+        assertInstanceOf(ConversionUnavailableException.class, assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(ConversionUnavailableException.class, assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals(1L, meterRegistry.get("conversion.coalescer.batch.latency").tag("outcome", "failure").timer().count());
+    }
+}
@@ -0,0 +1,90 @@
+package com.swiggy.walletapp.client;
+
+import com.swiggy.walletapp.config.ConversionProperties;
+import com.swiggy.walletapp.config.HttpClientConfig;
+import com.swiggy.walletapp.dto.MoneyDto;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+public class ConversionClientBenchmarkTest {
+
+    private static final int CONVERSIONS = 5_000;
+
+    @Test
+    void restConversionThroughput() throws Exception {
+        try (StubConversionServer server = new StubConversionServer()) {
+            server.setLatency(Duration.ofMillis(2));
+            ConversionProperties conversionProperties = new ConversionProperties();
+            conversionProperties.setUrl(server.getUrl());
+            conversionProperties.getRest().setPoolTimeout(Duration.ofSeconds(5));
+            HttpClientConfig httpClientConfig = new HttpClientConfig();
+            ThreadPoolTaskExecutor executor = httpClientConfig.conversionExecutor(conversionProperties);
+            executor.setQueueCapacity(CONVERSIONS);
+            executor.initialize();
+            ConversionClient client = new RestConversionClient(httpClientConfig.conversionRestTemplate(conversionProperties),
+                    conversionProperties, executor, CircuitBreaker.ofDefaults("conversion"), new SimpleMeterRegistry());
+
+            run("rest", client);
+
+            assertEquals(CONVERSIONS * 2, server.getCalls());
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void grpcConversionThroughput() throws Exception {
+        try (InProcessMoneyConverter converter = new InProcessMoneyConverter()) {
+            converter.setLatency(Duration.ofMillis(2));
+            GrpcChannelPool channelPool = new GrpcChannelPool(4, converter::newChannel);
+            ConversionClient client = new GrpcConversionClient(channelPool, new ConversionProperties());
+
+            run("grpc", client);
+
+            assertEquals(CONVERSIONS * 2, converter.getCalls());
+            channelPool.shutdown();
+        }
+    }
+
+    @Test
+    void coalescedGrpcConversionThroughput() throws Exception {
+        try (InProcessMoneyConverter converter = new InProcessMoneyConverter()) {
+            converter.setLatency(Duration.ofMillis(2));
+            GrpcChannelPool channelPool = new GrpcChannelPool(4, converter::newChannel);
+            ConversionClient client = new CoalescingConversionClient(
+                    new GrpcConversionClient(channelPool, new ConversionProperties()),
+                    new ConversionProperties.Coalescer(), new SimpleMeterRegistry());
+
+            run("grpc-coalesced", client);
+
+            System.out.printf("grpc-coalesced: %d batch calls for %d conversions%n", converter.getBatchCalls(), CONVERSIONS * 2);
+            client.close();
+            channelPool.shutdown();
+        }
+    }
+
+    static void run(String transport, ConversionClient client) {
+        issue(client);
+        long start = System.nanoTime();
+        issue(client);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        System.out.printf("%s: %d conversions in %d ms (%.0f/s)%n",
+                transport, CONVERSIONS, elapsedMillis, CONVERSIONS * 1000.0 / Math.max(elapsedMillis, 1));
+    }
+
+    private static void issue(ConversionClient client) {
+        CompletableFuture<?>[] calls = IntStream.range(0, CONVERSIONS)
+                .mapToObj(i -> client.convert(new MoneyDto("USD", i + 1), "INR"))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(calls).join();
+    }
+}
@@ -0,0 +1,92 @@
+package com.swiggy.walletapp.client;
+
+import com.swiggy.walletapp.config.ConversionProperties;
+import com.swiggy.walletapp.dto.MoneyConversionRequest;
+import com.swiggy.walletapp.dto.MoneyDto;
+import com.swiggy.walletapp.exception.ConversionUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrpcConversionClientTest {
+
+    private InProcessMoneyConverter converter;
+    private GrpcChannelPool channelPool;
+    private ConversionProperties conversionProperties;
+    private GrpcConversionClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        converter = new InProcessMoneyConverter();
+        channelPool = new GrpcChannelPool(2, converter::newChannel);
+        conversionProperties = new ConversionProperties();
+        client = new GrpcConversionClient(channelPool, conversionProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channelPool.shutdown();
+        converter.close();
+    }
+
+    @Test
+    void convertReturnsConvertedMoneyFromServer() {
+        MoneyDto result = client.convert(new MoneyDto("USD", 2.0), "INR").join();
+
+        assertEquals(new MoneyDto("INR", 166.0), result);
+    }
+
+    @Test
+    void convertDoesNotBlockCallerWhileServerIsWorking() {
+        converter.setLatency(Duration.ofMillis(200));
+
+        CompletableFuture<MoneyDto> result = client.convert(new MoneyDto("USD", 1.0), "INR");
+
+        assertFalse(result.isDone());
+        assertEquals(83.0, result.join().getAmount());
+    }
+
+    @Test
+    void convertFailsWithConversionUnavailableWhenServerIsUnavailable() {
+        converter.setUnavailable(true);
+
+        CompletionException e = assertThrows(CompletionException.class, () -> client.convert(new MoneyDto("USD", 1.0), "INR").join());
+
+        assertInstanceOf(ConversionUnavailableException.class, e.getCause());
+    }
+
+    @Test
+    void convertFailsWithConversionUnavailableWhenDeadlineExpires() {
+        conversionProperties.getGrpc().setDeadline(Duration.ofMillis(50));
+        converter.setLatency(Duration.ofMillis(500));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> client.convert(new MoneyDto("USD", 1.0), "INR").join());
+
+        assertInstanceOf(ConversionUnavailableException.class, e.getCause());
+    }
+
+    @Test
+    void convertManyConvertsWholeBatchInOneCall() {
+        List<MoneyDto> result = client.convertMany(List.of(
+                new MoneyConversionRequest(new MoneyDto("USD", 1.0), "INR"),
+                new MoneyConversionRequest(new MoneyDto("EUR", 1.0), "INR"),
+                new MoneyConversionRequest(new MoneyDto("INR", 180.0), "EUR"))).join();
+
+        assertEquals(List.of(new MoneyDto("INR", 83.0), new MoneyDto("INR", 90.0), new MoneyDto("EUR", 2.0)), result);
+        assertEquals(1, converter.getBatchCalls());
+        assertEquals(0, converter.getCalls());
+    }
+
+    @Test
+    void channelPoolRotatesAcrossChannels() {
+        assertNotSame(channelPool.next(), channelPool.next());
+        assertEquals(2, channelPool.size());
+    }
+}
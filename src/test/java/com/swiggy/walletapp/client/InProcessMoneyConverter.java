@@ -0,0 +1,110 @@
+package com.swiggy.walletapp.client;
+
+import com.swiggy.walletapp.enums.Currency;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import pb.MoneyConverterGrpc;
+import pb.MoneyConverterOuterClass;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for the currency converter that prices conversions with the {@link Currency} rates.
+ */
+public class InProcessMoneyConverter extends MoneyConverterGrpc.MoneyConverterImplBase implements AutoCloseable {
+
+    private final String name = InProcessServerBuilder.generateName();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Server server;
+    private volatile Duration latency = Duration.ZERO;
+    private volatile boolean unavailable;
+
+    public InProcessMoneyConverter() throws IOException {
+        this.server = InProcessServerBuilder.forName(name)
+                .executor(executor)
+                .addService(this)
+                .build()
+                .start();
+    }
+
+    public ManagedChannel newChannel() {
+        return InProcessChannelBuilder.forName(name).build();
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    public void setUnavailable(boolean unavailable) {
+        this.unavailable = unavailable;
+    }
+
+    public int getCalls() {
+        return calls.get();
+    }
+
+    public int getBatchCalls() {
+        return batchCalls.get();
+    }
+
+    @Override
+    public void convert(MoneyConverterOuterClass.ConvertRequest request, StreamObserver<MoneyConverterOuterClass.ConvertResponse> responseObserver) {
+        calls.incrementAndGet();
+        if (unavailable) {
+            responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+            return;
+        }
+        sleep();
+        responseObserver.onNext(MoneyConverterOuterClass.ConvertResponse.newBuilder()
+                .setConverted(convert(request.getFrom(), request.getToCurrency()))
+                .build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void convertMany(MoneyConverterOuterClass.ConvertManyRequest request, StreamObserver<MoneyConverterOuterClass.ConvertManyResponse> responseObserver) {
+        batchCalls.incrementAndGet();
+        if (unavailable) {
+            responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+            return;
+        }
+        sleep();
+        MoneyConverterOuterClass.ConvertManyResponse.Builder response = MoneyConverterOuterClass.ConvertManyResponse.newBuilder();
+        request.getRequestsList().forEach(single -> response.addResponses(MoneyConverterOuterClass.ConvertResponse.newBuilder()
+                .setConverted(convert(single.getFrom(), single.getToCurrency()))));
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    private static MoneyConverterOuterClass.Money convert(MoneyConverterOuterClass.Money from, String toCurrency) {
+        double amount = from.getAmount() * Currency.valueOf(from.getCurrency()).getConversionRate() / Currency.valueOf(toCurrency).getConversionRate();
+        return MoneyConverterOuterClass.Money.newBuilder().setCurrency(toCurrency).setAmount(amount).build();
+    }
+
+    private void sleep() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.shutdownNow();
+        executor.shutdownNow();
+    }
+}
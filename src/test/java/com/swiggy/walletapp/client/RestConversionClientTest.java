@@ -0,0 +1,237 @@
+package com.swiggy.walletapp.client;
+
+import com.swiggy.walletapp.config.ConversionProperties;
+import com.swiggy.walletapp.config.HttpClientConfig;
+import com.swiggy.walletapp.dto.MoneyConversionRequest;
+import com.swiggy.walletapp.dto.MoneyConversionResponse;
+import com.swiggy.walletapp.dto.MoneyDto;
+import com.swiggy.walletapp.exception.ConversionUnavailableException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class RestConversionClientTest {
+
+    private static final String CONVERSION_URL = "http://host.docker.internal:8085/convertedMoney";
+    private static final String BATCH_URL = "http://host.docker.internal:8085/convertedMoney/batch";
+
+    private RestTemplate restTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private RestConversionClient client;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(4);
+        client = newClient(new ConversionProperties(), CircuitBreaker.ofDefaults("conversion"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void convertMoneySuccessfully() {
+        MoneyDto money = new MoneyDto("USD", 100.0);
+        String toCurrency = "INR";
+        MoneyConversionRequest request = new MoneyConversionRequest(money, toCurrency);
+        MoneyConversionResponse response = new MoneyConversionResponse(new MoneyDto("INR", 7500.0));
+        when(restTemplate.postForEntity(CONVERSION_URL, request, MoneyConversionResponse.class))
+                .thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+        MoneyDto result = client.convert(money, toCurrency).join();
+
+        assertEquals("INR", result.getCurrency());
+        assertEquals(7500.0, result.getAmount());
+    }
+
+    @Test
+    void convertMoneyThrowsExceptionWhenResponseIsNull() {
+        MoneyDto money = new MoneyDto("USD", 100.0);
+        String toCurrency = "INR";
+        MoneyConversionRequest request = new MoneyConversionRequest(money, toCurrency);
+        when(restTemplate.postForEntity(CONVERSION_URL, request, MoneyConversionResponse.class))
+                .thenReturn(new ResponseEntity<>(null, HttpStatus.OK));
+
+        assertThrows(RuntimeException.class, () -> client.convert(money, toCurrency).join());
+    }
+
+    @Test
+    void convertMoneyThrowsExceptionWhenResponseBodyIsNull() {
+        MoneyDto money = new MoneyDto("USD", 100.0);
+        String toCurrency = "INR";
+        MoneyConversionRequest request = new MoneyConversionRequest(money, toCurrency);
+        when(restTemplate.postForEntity(CONVERSION_URL, request, MoneyConversionResponse.class))
+                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+        assertThrows(RuntimeException.class, () -> client.convert(money, toCurrency).join());
+    }
+
+    @Test
+    void convertMoneyFailsWithConversionUnavailableWhenServiceIsDown() {
+        when(restTemplate.postForEntity(eq(CONVERSION_URL), any(), eq(MoneyConversionResponse.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> client.convert(new MoneyDto("USD", 1.0), "INR").join());
+
+        assertInstanceOf(ConversionUnavailableException.class, e.getCause());
+    }
+
+    @Test
+    void convertManyPostsWholeBatchWhenBatchUrlIsConfigured() {
+        ConversionProperties conversionProperties = new ConversionProperties();
+        conversionProperties.getRest().setBatchUrl(BATCH_URL);
+        client = newClient(conversionProperties, CircuitBreaker.ofDefaults("conversion"));
+        List<MoneyConversionRequest> requests = List.of(
+                new MoneyConversionRequest(new MoneyDto("USD", 1.0), "INR"),
+                new MoneyConversionRequest(new MoneyDto("EUR", 1.0), "INR"));
+        MoneyConversionResponse[] responses = {
+                new MoneyConversionResponse(new MoneyDto("INR", 83.0)),
+                new MoneyConversionResponse(new MoneyDto("INR", 90.0))};
+        when(restTemplate.postForEntity(BATCH_URL, requests, MoneyConversionResponse[].class))
+                .thenReturn(new ResponseEntity<>(responses, HttpStatus.OK));
+
+        List<MoneyDto> result = client.convertMany(requests).join();
+
+        assertEquals(List.of(new MoneyDto("INR", 83.0), new MoneyDto("INR", 90.0)), result);
+        verify(restTemplate, never()).postForEntity(eq(CONVERSION_URL), any(), eq(MoneyConversionResponse.class));
+    }
+
+    @Test
+    void convertMoneyRecordsLatencyPerOutcome() {
+        when(restTemplate.postForEntity(eq(CONVERSION_URL), any(), eq(MoneyConversionResponse.class)))
+                .thenReturn(new ResponseEntity<>(new MoneyConversionResponse(new MoneyDto("INR", 83.0)), HttpStatus.OK))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        client.convert(new MoneyDto("USD", 1.0), "INR").join();
+        assertThrows(CompletionException.class, () -> client.convert(new MoneyDto("USD", 1.0), "INR").join());
+
+        assertEquals(1, meterRegistry.get("conversion.http.client.requests").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("conversion.http.client.requests").tag("outcome", "unavailable").timer().count());
+    }
+
+    @Test
+    void convertMoneyShortCircuitsOnceTheCircuitIsOpen() {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ofMinutes(1));
+        client = newClient(new ConversionProperties(), circuitBreaker);
+        when(restTemplate.postForEntity(eq(CONVERSION_URL), any(), eq(MoneyConversionResponse.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(CompletionException.class, () -> client.convert(new MoneyDto("USD", 1.0), "INR").join());
+        }
+        CompletionException e = assertThrows(CompletionException.class, () -> client.convert(new MoneyDto("USD", 1.0), "INR").join());
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertInstanceOf(ConversionUnavailableException.class, e.getCause());
+        verify(restTemplate, times(2)).postForEntity(eq(CONVERSION_URL), any(), eq(MoneyConversionResponse.class));
+        assertEquals(1, meterRegistry.get("conversion.http.client.requests").tag("outcome", "short_circuited").timer().count());
+    }
+
+    @Test
+    void convertMoneyClosesTheCircuitAfterASuccessfulHalfOpenProbe() throws InterruptedException {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ofMillis(50));
+        client = newClient(new ConversionProperties(), circuitBreaker);
+        when(restTemplate.postForEntity(eq(CONVERSION_URL), any(), eq(MoneyConversionResponse.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"))
+                .thenThrow(new ResourceAccessException("Connection refused"))
+                .thenReturn(new ResponseEntity<>(new MoneyConversionResponse(new MoneyDto("INR", 83.0)), HttpStatus.OK));
+        for (int i = 0; i < 2; i++) {
+            assertThrows(CompletionException.class, () -> client.convert(new MoneyDto("USD", 1.0), "INR").join());
+        }
+
+        Thread.sleep(100);
+        MoneyDto result = client.convert(new MoneyDto("USD", 1.0), "INR").join();
+
+        assertEquals(new MoneyDto("INR", 83.0), result);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void convertMoneyHedgesSlowRequests() {
+        ConversionProperties conversionProperties = new ConversionProperties();
+        conversionProperties.getRest().getHedge().setEnabled(true);
+        conversionProperties.getRest().getHedge().setDelay(Duration.ofMillis(20));
+        client = newClient(conversionProperties, CircuitBreaker.ofDefaults("conversion"));
+        AtomicInteger attempts = new AtomicInteger();
+        when(restTemplate.postForEntity(eq(CONVERSION_URL), any(), eq(MoneyConversionResponse.class))).thenAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                Thread.sleep(1000);
+            }
+            return new ResponseEntity<>(new MoneyConversionResponse(new MoneyDto("INR", 83.0)), HttpStatus.OK);
+        });
+
+        long start = System.nanoTime();
+        MoneyDto result = client.convert(new MoneyDto("USD", 1.0), "INR").join();
+
+        assertEquals(new MoneyDto("INR", 83.0), result);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000);
+        assertEquals(1.0, meterRegistry.get("conversion.http.client.hedges").counter().count());
+    }
+
+    @Test
+    void convertMoneyOverPooledHttpClient() throws Exception {
+        try (StubConversionServer server = new StubConversionServer()) {
+            ConversionProperties conversionProperties = new ConversionProperties();
+            conversionProperties.setUrl(server.getUrl());
+            restTemplate = new HttpClientConfig().conversionRestTemplate(conversionProperties);
+            client = newClient(conversionProperties, CircuitBreaker.ofDefaults("conversion"));
+
+            MoneyDto result = client.convert(new MoneyDto("USD", 2.0), "INR").join();
+
+            assertEquals(new MoneyDto("INR", 166.0), result);
+            assertEquals(1, server.getCalls());
+        }
+    }
+
+    @Test
+    void convertMoneyFailsWithConversionUnavailableWhenReadTimesOut() throws Exception {
+        try (StubConversionServer server = new StubConversionServer()) {
+            server.setLatency(Duration.ofMillis(500));
+            ConversionProperties conversionProperties = new ConversionProperties();
+            conversionProperties.setUrl(server.getUrl());
+            conversionProperties.getRest().setReadTimeout(Duration.ofMillis(100));
+            restTemplate = new HttpClientConfig().conversionRestTemplate(conversionProperties);
+            client = newClient(conversionProperties, CircuitBreaker.ofDefaults("conversion"));
+
+            CompletionException e = assertThrows(CompletionException.class, () -> client.convert(new MoneyDto("USD", 1.0), "INR").join());
+
+            assertInstanceOf(ConversionUnavailableException.class, e.getCause());
+        }
+    }
+
+    private RestConversionClient newClient(ConversionProperties conversionProperties, CircuitBreaker circuitBreaker) {
+        return new RestConversionClient(restTemplate, conversionProperties, executor, circuitBreaker, meterRegistry);
+    }
+
+    private static CircuitBreaker circuitBreaker(Duration waitInOpenState) {
+        return CircuitBreaker.of("conversion", CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .waitDurationInOpenState(waitInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(1)
+                .build());
+    }
+}
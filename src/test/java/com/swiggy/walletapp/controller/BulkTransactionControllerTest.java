@@ -0,0 +1,82 @@
+package com.swiggy.walletapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiggy.walletapp.dto.BulkTransactionDto;
+import com.swiggy.walletapp.dto.BulkTransactionResultDto;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.exception.GlobalExceptionHandler;
+import com.swiggy.walletapp.exception.InvalidBatchException;
+import com.swiggy.walletapp.service.BulkTransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static com.swiggy.walletapp.enums.TransactionType.DEPOSIT;
+import static com.swiggy.walletapp.enums.TransactionType.TRANSFER;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BulkTransactionControllerTest {
+
+    private static final String BATCH_URL = "/users/{userId}/transactions/batch";
+
+    @Mock
+    private BulkTransactionService bulkTransactionService;
+
+    @InjectMocks
+    private BulkTransactionController bulkTransactionController;
+
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(bulkTransactionController)
+                .setControllerAdvice(new GlobalExceptionHandler()).build();
+    }
+
+    @Test
+    void testCreateTransactionsReturnsResultPerItem() throws Exception {
+        List<BulkTransactionDto> transactions = List.of(
+                new BulkTransactionDto(1L, DEPOSIT, 100L, Currency.INR),
+                new BulkTransactionDto(1L, TRANSFER, 500L, 2L));
+        when(bulkTransactionService.createTransactions(1L, transactions)).thenReturn(List.of(
+                BulkTransactionResultDto.completed(0, 100L),
+                BulkTransactionResultDto.failed(1, "Insufficient funds")));
+
+        mockMvc.perform(post(BATCH_URL, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactions)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("COMPLETED"))
+                .andExpect(jsonPath("$[0].amount").value(100))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].status").value("FAILED"))
+                .andExpect(jsonPath("$[1].message").value("Insufficient funds"));
+    }
+
+    @Test
+    void testCreateTransactionsRejectsInvalidBatch() throws Exception {
+        when(bulkTransactionService.createTransactions(1L, List.of()))
+                .thenThrow(new InvalidBatchException("Batch must contain at least one transaction", HttpStatus.BAD_REQUEST));
+
+        mockMvc.perform(post(BATCH_URL, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Batch must contain at least one transaction"));
+    }
+}
@@ -3,10 +3,16 @@ package com.swiggy.walletapp.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.dto.TransactionPageDto;
+import com.swiggy.walletapp.dto.TransactionRequestDto;
 import com.swiggy.walletapp.dto.TransactionResponseDto;
 import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.TransactionStatus;
 import com.swiggy.walletapp.enums.TransactionType;
 import com.swiggy.walletapp.exception.*;
+import com.swiggy.walletapp.service.TransactionExportService;
+import com.swiggy.walletapp.service.TransactionIdempotencyService;
+import com.swiggy.walletapp.service.TransactionRequestService;
 import com.swiggy.walletapp.service.TransactionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,21 +20,28 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.skyscreamer.jsonassert.JSONAssert;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static com.swiggy.walletapp.enums.TransactionType.DEPOSIT;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class TransactionControllerTest {
@@ -38,6 +51,15 @@ public class TransactionControllerTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private TransactionExportService transactionExportService;
+
+    @Mock
+    private TransactionRequestService transactionRequestService;
+
+    @Mock
+    private TransactionIdempotencyService transactionIdempotencyService;
+
     @InjectMocks
     private TransactionController transactionController;
 
@@ -55,7 +77,7 @@ public class TransactionControllerTest {
 
     @Test
     void testCreateTransactionThrowsWalletNotFoundExceptionWhenWalletNotFound() throws Exception {
-        final double amount = 100.0;
+        final long amount = 100L;
         final Currency currency = Currency.INR;
         final TransactionDto transactionDto = new TransactionDto(DEPOSIT, amount, currency);
         final Long userId = 1L;
@@ -73,7 +95,7 @@ public class TransactionControllerTest {
 
     @Test
     void testCreateTransactionThrowsUserNotFoundExceptionWhenUserNotFound() throws Exception {
-        final double amount = 100.0;
+        final long amount = 100L;
         final Currency currency = Currency.INR;
         final TransactionDto transactionDto = new TransactionDto(DEPOSIT, amount, currency);
         final Long userId = 1L;
@@ -91,7 +113,7 @@ public class TransactionControllerTest {
 
     @Test
     void testCreateTransactionThrowsUnauthorizedAccessExceptionWhenUnauthorizedUser() throws Exception {
-        final double amount = 100.0;
+        final long amount = 100L;
         final Currency currency = Currency.INR;
         final TransactionDto transactionDto = new TransactionDto(DEPOSIT, amount, currency);
         final Long userId = 1L;
@@ -109,7 +131,7 @@ public class TransactionControllerTest {
 
     @Test
     void testCreateTransactionReturnsCreatedWhenDepositingValidAmount() throws Exception {
-        final double amount = 100.0;
+        final long amount = 100L;
         final Currency currency = Currency.INR;
         final TransactionDto transactionDto = new TransactionDto(DEPOSIT, amount, currency);
         final Long userId = 1L;
@@ -125,7 +147,7 @@ public class TransactionControllerTest {
 
     @Test
     void testCreateTransactionThrowsInvalidAmountExceptionWhenDepositingInvalidAmount() throws Exception {
-        final double amount = -100.0;
+        final long amount = -100L;
         final Currency currency = Currency.INR;
         final TransactionDto transactionDto = new TransactionDto(DEPOSIT, amount, currency);
         final Long userId = 1L;
@@ -143,7 +165,7 @@ public class TransactionControllerTest {
 
     @Test
     void testCreateTransactionThrowsInvalidTransactionTypeExceptionWhenTransactionTypeIsInvalid() throws Exception {
-        final double amount = -100.0;
+        final long amount = -100L;
         final Currency currency = Currency.INR;
         final TransactionDto transactionDto = new TransactionDto(null, amount, currency);
         final Long userId = 1L;
@@ -161,7 +183,7 @@ public class TransactionControllerTest {
 
     @Test
     void testCreateTransactionReturnsCreatedWhenWithdrawingValidAmount() throws Exception {
-        final double amount = 50.0;
+        final long amount = 50L;
         final Currency currency = Currency.USD;
         final TransactionDto transactionDto = new TransactionDto(TransactionType.WITHDRAWAL, amount, currency);
         final Long userId = 1L;
@@ -177,7 +199,7 @@ public class TransactionControllerTest {
 
     @Test
     void testCreateTransactionThrowsInsufficientFundsExceptionWhenWithdrawingInvalidAmount() throws Exception {
-        final double amount = 500.0;
+        final long amount = 500L;
         final Currency currency = Currency.USD;
         final TransactionDto transactionDto = new TransactionDto(TransactionType.WITHDRAWAL, amount, currency);
         final Long userId = 1L;
@@ -195,7 +217,7 @@ public class TransactionControllerTest {
 
     @Test
     void testCreateTransactionReturnsCreatedWhenTransferringValidAmount() throws Exception {
-        final double amount = 100.0;
+        final long amount = 100L;
         final Long recipientId = 2L;
         final TransactionDto transactionDto = new TransactionDto(TransactionType.TRANSFER, amount, recipientId);
         final Long userId = 1L;
@@ -211,7 +233,7 @@ public class TransactionControllerTest {
 
     @Test
     void testCreateTransactionThrowsInsufficientFundsExceptionWhenTransferAmountGreaterThanCurrentBalance() throws Exception {
-        final double amount = 100.0;
+        final long amount = 100L;
         final Long recipientId = 2L;
         final TransactionDto transactionDto = new TransactionDto(TransactionType.TRANSFER, amount, recipientId);
         final Long userId = 1L;
@@ -229,7 +251,7 @@ public class TransactionControllerTest {
 
     @Test
     void testCreateTransactionThrowsUserNotFoundExceptionWhenTransferringAmountToUnregisteredRecipientWallet() throws Exception {
-        final double amount = 100.0;
+        final long amount = 100L;
         final Long recipientId = 2L;
         final TransactionDto transactionDto = new TransactionDto(TransactionType.TRANSFER, amount, recipientId);
         final Long userId = 1L;
@@ -249,56 +271,56 @@ public class TransactionControllerTest {
     void testGetTransactionsThrowsWalletNotFoundExceptionWhenWalletNotFound() throws Exception {
         final Long userId = 1L;
         final Long walletId = 1L;
-        doThrow(new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND)).when(transactionService).getTransactions(userId, walletId, null);
+        doThrow(new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND)).when(transactionService).getTransactions(userId, walletId, null, 50, null, Sort.Direction.DESC);
 
         mockMvc.perform(get(TRANSACTIONS_URL, userId, walletId)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        assertThrows(WalletNotFoundException.class, () -> transactionService.getTransactions(userId, walletId, null));
+        assertThrows(WalletNotFoundException.class, () -> transactionService.getTransactions(userId, walletId, null, 50, null, Sort.Direction.DESC));
     }
 
     @Test
     void testGetTransactionsThrowsUserNotFoundExceptionWhenUserNotFound() throws Exception {
         final Long userId = 1L;
         final Long walletId = 1L;
-        doThrow(new UserNotFoundException("User not found", HttpStatus.NOT_FOUND)).when(transactionService).getTransactions(userId, walletId, null);
+        doThrow(new UserNotFoundException("User not found", HttpStatus.NOT_FOUND)).when(transactionService).getTransactions(userId, walletId, null, 50, null, Sort.Direction.DESC);
 
         mockMvc.perform(get(TRANSACTIONS_URL, userId, walletId)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        assertThrows(UserNotFoundException.class, () -> transactionService.getTransactions(userId, walletId, null));
+        assertThrows(UserNotFoundException.class, () -> transactionService.getTransactions(userId, walletId, null, 50, null, Sort.Direction.DESC));
     }
 
     @Test
     void testGetTransactionsThrowsUnauthorizedAccessExceptionWhenUnauthorizedUser() throws Exception {
         final Long userId = 1L;
         final Long walletId = 1L;
-        doThrow(new UnauthorizedAccessException("Unauthorized access to wallet", HttpStatus.UNAUTHORIZED)).when(transactionService).getTransactions(userId, walletId, null);
+        doThrow(new UnauthorizedAccessException("Unauthorized access to wallet", HttpStatus.UNAUTHORIZED)).when(transactionService).getTransactions(userId, walletId, null, 50, null, Sort.Direction.DESC);
 
         mockMvc.perform(get(TRANSACTIONS_URL, userId, walletId)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isUnauthorized())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        assertThrows(UnauthorizedAccessException.class, () -> transactionService.getTransactions(userId, walletId, null));
+        assertThrows(UnauthorizedAccessException.class, () -> transactionService.getTransactions(userId, walletId, null, 50, null, Sort.Direction.DESC));
     }
 
     @Test
     void testGetTransactionsThrowsNoTransactionsFoundExceptionWhenNoTransactionsFound() throws Exception {
         final Long userId = 1L;
         final Long walletId = 1L;
-        doThrow(new NoTransactionsFoundException("No transactions found for user", HttpStatus.NOT_FOUND)).when(transactionService).getTransactions(userId, walletId, null);
+        doThrow(new NoTransactionsFoundException("No transactions found for wallet", HttpStatus.NOT_FOUND)).when(transactionService).getTransactions(userId, walletId, null, 50, null, Sort.Direction.DESC);
 
         mockMvc.perform(get(TRANSACTIONS_URL, userId, walletId)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        assertThrows(NoTransactionsFoundException.class, () -> transactionService.getTransactions(userId, walletId, null));
+        assertThrows(NoTransactionsFoundException.class, () -> transactionService.getTransactions(userId, walletId, null, 50, null, Sort.Direction.DESC));
     }
 
     @Test
@@ -306,9 +328,10 @@ public class TransactionControllerTest {
         final Long recipientId = 2L;
         final Long senderId = 1L;
         final Long walletId = 1L;
-        final TransactionResponseDto firstTransactionResponseDto = new TransactionResponseDto(1L, 100.0, Currency.INR, DEPOSIT, recipientId, null, LocalDateTime.now());
-        final TransactionResponseDto secondTransactionResponseDto = new TransactionResponseDto(2L, 100.0, Currency.INR, DEPOSIT, recipientId, senderId, LocalDateTime.now());
-        when(transactionService.getTransactions(recipientId, walletId, null)).thenReturn(List.of(firstTransactionResponseDto, secondTransactionResponseDto));
+        final TransactionResponseDto firstTransactionResponseDto = new TransactionResponseDto(1L, 100L, Currency.INR, DEPOSIT, recipientId, null, LocalDateTime.now());
+        final TransactionResponseDto secondTransactionResponseDto = new TransactionResponseDto(2L, 100L, Currency.INR, DEPOSIT, recipientId, senderId, LocalDateTime.now());
+        final TransactionPageDto page = new TransactionPageDto(List.of(firstTransactionResponseDto, secondTransactionResponseDto), null);
+        when(transactionService.getTransactions(recipientId, walletId, null, 50, null, Sort.Direction.DESC)).thenReturn(page);
 
         MvcResult mvcResult = mockMvc.perform(get(TRANSACTIONS_URL, recipientId, walletId)
                         .accept(MediaType.APPLICATION_JSON))
@@ -316,7 +339,7 @@ public class TransactionControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andReturn();
 
-        String expectedResponse = objectMapper.writeValueAsString(List.of(firstTransactionResponseDto, secondTransactionResponseDto));
+        String expectedResponse = objectMapper.writeValueAsString(page);
         String actualResponse = mvcResult.getResponse().getContentAsString();
         JSONAssert.assertEquals(expectedResponse, actualResponse, false);
     }
@@ -326,9 +349,10 @@ public class TransactionControllerTest {
         final Long userId = 1L;
         final Long walletId = 1L;
         final TransactionType transactionType = DEPOSIT;
-        final TransactionResponseDto firstTransactionResponseDto = new TransactionResponseDto(1L, 100.0, Currency.INR, DEPOSIT, userId, null, LocalDateTime.now());
-        final TransactionResponseDto secondTransactionResponseDto = new TransactionResponseDto(2L, 200.0, Currency.INR, DEPOSIT, userId, null, LocalDateTime.now());
-        when(transactionService.getTransactions(userId, walletId, transactionType)).thenReturn(List.of(firstTransactionResponseDto, secondTransactionResponseDto));
+        final TransactionResponseDto firstTransactionResponseDto = new TransactionResponseDto(1L, 100L, Currency.INR, DEPOSIT, userId, null, LocalDateTime.now());
+        final TransactionResponseDto secondTransactionResponseDto = new TransactionResponseDto(2L, 200L, Currency.INR, DEPOSIT, userId, null, LocalDateTime.now());
+        final TransactionPageDto page = new TransactionPageDto(List.of(firstTransactionResponseDto, secondTransactionResponseDto), null);
+        when(transactionService.getTransactions(userId, walletId, transactionType, 50, null, Sort.Direction.DESC)).thenReturn(page);
 
         MvcResult mvcResult = mockMvc.perform(get(TRANSACTIONS_URL, userId, walletId)
                         .param("transactionType", transactionType.name())
@@ -337,8 +361,179 @@ public class TransactionControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andReturn();
 
-        String expectedResponse = objectMapper.writeValueAsString(List.of(firstTransactionResponseDto, secondTransactionResponseDto));
+        String expectedResponse = objectMapper.writeValueAsString(page);
         String actualResponse = mvcResult.getResponse().getContentAsString();
         JSONAssert.assertEquals(expectedResponse, actualResponse, false);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetTransactionsPassesPageParametersAndReturnsNextCursor() throws Exception {
+        final Long userId = 1L;
+        final Long walletId = 1L;
+        final TransactionResponseDto transactionResponseDto = new TransactionResponseDto(9L, 100L, Currency.INR, DEPOSIT, walletId, null, LocalDateTime.now());
+        final TransactionPageDto page = new TransactionPageDto(List.of(transactionResponseDto), "next");
+        when(transactionService.getTransactions(userId, walletId, null, 1, "cursor", Sort.Direction.ASC)).thenReturn(page);
+
+        mockMvc.perform(get(TRANSACTIONS_URL, userId, walletId)
+                        .param("limit", "1")
+                        .param("after", "cursor")
+                        .param("order", "ASC")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions[0].id").value(9))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void testGetTransactionsReturnsBadRequestWhenPageRequestIsInvalid() throws Exception {
+        final Long userId = 1L;
+        final Long walletId = 1L;
+        when(transactionService.getTransactions(userId, walletId, null, 50, "bad", Sort.Direction.DESC))
+                .thenThrow(new InvalidPageRequestException("Invalid cursor", HttpStatus.BAD_REQUEST));
+
+        mockMvc.perform(get(TRANSACTIONS_URL, userId, walletId)
+                        .param("after", "bad")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportTransactionsStreamsNdjson() throws Exception {
+        final Long userId = 1L;
+        final Long walletId = 1L;
+        final String rows = "{\"id\":1}\n{\"id\":2}\n";
+        when(transactionExportService.exportTransactions(userId, walletId))
+                .thenReturn(outputStream -> outputStream.write(rows.getBytes()));
+
+        MvcResult mvcResult = mockMvc.perform(get(TRANSACTIONS_URL + "/export", userId, walletId)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(rows));
+    }
+
+    @Test
+    void testExportTransactionsReturnsUnauthorizedBeforeStreaming() throws Exception {
+        final Long userId = 1L;
+        final Long walletId = 2L;
+        when(transactionExportService.exportTransactions(userId, walletId))
+                .thenThrow(new UnauthorizedAccessException("Unauthorized access to wallet", HttpStatus.UNAUTHORIZED));
+
+        mockMvc.perform(get(TRANSACTIONS_URL + "/export", userId, walletId)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testSubmitTransactionReturnsAcceptedWithStatusLocation() throws Exception {
+        final TransactionDto transactionDto = new TransactionDto(DEPOSIT, 100L, Currency.INR);
+        final Long userId = 1L;
+        final Long walletId = 2L;
+        when(transactionRequestService.submit(userId, walletId, transactionDto))
+                .thenReturn(new TransactionRequestDto(7L, TransactionStatus.PENDING, null, LocalDateTime.now(), null));
+
+        mockMvc.perform(post(TRANSACTIONS_URL + "/async", userId, walletId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDto)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/users/1/wallets/2/transactions/requests/7"))
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void testSubmitTransactionRejectsInvalidTransactionBeforeAccepting() throws Exception {
+        final TransactionDto transactionDto = new TransactionDto(DEPOSIT, -100L, Currency.INR);
+        final Long userId = 1L;
+        final Long walletId = 2L;
+        when(transactionRequestService.submit(userId, walletId, transactionDto))
+                .thenThrow(new InvalidAmountException("Deposit amount must be positive", HttpStatus.BAD_REQUEST));
+
+        mockMvc.perform(post(TRANSACTIONS_URL + "/async", userId, walletId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetTransactionRequestWaitsForCompletion() throws Exception {
+        final Long userId = 1L;
+        final Long walletId = 2L;
+        CompletableFuture<TransactionRequestDto> completion = new CompletableFuture<>();
+        when(transactionRequestService.awaitRequest(userId, walletId, 7L, Duration.ofSeconds(5))).thenReturn(completion);
+
+        MvcResult mvcResult = mockMvc.perform(get(TRANSACTIONS_URL + "/requests/{requestId}", userId, walletId, 7L)
+                        .param("wait", "PT5S"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        completion.complete(new TransactionRequestDto(7L, TransactionStatus.COMPLETED, null, LocalDateTime.now(), LocalDateTime.now()));
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    void testGetTransactionRequestReturnsNotFoundForAnotherWallet() throws Exception {
+        final Long userId = 1L;
+        final Long walletId = 3L;
+        when(transactionRequestService.awaitRequest(userId, walletId, 7L, Duration.ZERO))
+                .thenThrow(new TransactionRequestNotFoundException("Transaction request not found", HttpStatus.NOT_FOUND));
+
+        mockMvc.perform(get(TRANSACTIONS_URL + "/requests/{requestId}", userId, walletId, 7L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCreateTransactionWithIdempotencyKeyRunsOnce() throws Exception {
+        final TransactionDto transactionDto = new TransactionDto(DEPOSIT, 100L, Currency.INR);
+        final Long userId = 1L;
+        final Long walletId = 2L;
+        when(transactionIdempotencyService.createTransaction(userId, walletId, "key-1", transactionDto)).thenReturn(false);
+
+        mockMvc.perform(post(TRANSACTIONS_URL, userId, walletId)
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDto)))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(content().string("Transaction successful"));
+        verify(transactionService, never()).createTransaction(any(), any(), any());
+    }
+
+    @Test
+    void testCreateTransactionReplayReturnsStoredResult() throws Exception {
+        final TransactionDto transactionDto = new TransactionDto(DEPOSIT, 100L, Currency.INR);
+        final Long userId = 1L;
+        final Long walletId = 2L;
+        when(transactionIdempotencyService.createTransaction(userId, walletId, "key-1", transactionDto)).thenReturn(true);
+
+        mockMvc.perform(post(TRANSACTIONS_URL, userId, walletId)
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDto)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().string("Transaction successful"));
+    }
+
+    @Test
+    void testCreateTransactionRejectsIdempotencyKeyReusedForAnotherTransaction() throws Exception {
+        final TransactionDto transactionDto = new TransactionDto(DEPOSIT, 200L, Currency.INR);
+        final Long userId = 1L;
+        final Long walletId = 2L;
+        when(transactionIdempotencyService.createTransaction(userId, walletId, "key-1", transactionDto))
+                .thenThrow(new InvalidIdempotencyKeyException("Idempotency-Key was already used for a different transaction", HttpStatus.BAD_REQUEST));
+
+        mockMvc.perform(post(TRANSACTIONS_URL, userId, walletId)
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Idempotency-Key was already used for a different transaction"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.swiggy.walletapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.entity.User;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.repository.UserRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each transaction endpoint prepares, so an extra lookup shows up as a failure.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:statementsdb;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class TransactionStatementCountTest {
+
+    private static final String TRANSACTIONS_URL = "/users/{userId}/wallets/{walletId}/transactions";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private User user;
+    private Wallet wallet;
+    private Wallet recipientWallet;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        user = userRepository.save(new User("statements-" + System.nanoTime(), "password"));
+        wallet = walletRepository.save(new Wallet(user, Currency.INR));
+        User recipient = userRepository.save(new User("statements-recipient-" + System.nanoTime(), "password"));
+        recipientWallet = walletRepository.save(new Wallet(recipient, Currency.INR));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // A fresh sequence starts at 1, which the pooled optimizer hands out as a block of one id. Two seed deposits
+        // move the ledger sequence onto a full block, so the counts below never include a sequence fetch.
+        perform(post(TRANSACTIONS_URL, user.getId(), wallet.getId()), new TransactionDto(TransactionType.DEPOSIT, 1000L, Currency.INR));
+        perform(post(TRANSACTIONS_URL, user.getId(), wallet.getId()), new TransactionDto(TransactionType.DEPOSIT, 1000L, Currency.INR));
+    }
+
+    @Test
+    void depositPreparesThreeStatements() throws Exception {
+        assertEquals(3, statements(post(TRANSACTIONS_URL, user.getId(), wallet.getId()),
+                new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.INR)));
+    }
+
+    @Test
+    void withdrawalPreparesThreeStatements() throws Exception {
+        assertEquals(3, statements(post(TRANSACTIONS_URL, user.getId(), wallet.getId()),
+                new TransactionDto(TransactionType.WITHDRAWAL, 100L, Currency.INR)));
+    }
+
+    @Test
+    void transferPreparesFourStatements() throws Exception {
+        // The first transfer to a recipient also reads its currency and whether it is sharded, and both are cached
+        // per wallet, so the count below is that of every later transfer.
+        perform(post(TRANSACTIONS_URL, user.getId(), wallet.getId()), new TransactionDto(TransactionType.TRANSFER, 1L, recipientWallet.getId()));
+        // One more than the lock alone would need: owners are checked before the rows are locked.
+        assertEquals(4, statements(post(TRANSACTIONS_URL, user.getId(), wallet.getId()),
+                new TransactionDto(TransactionType.TRANSFER, 100L, recipientWallet.getId())));
+    }
+
+    @Test
+    void historyPagePreparesTwoStatements() throws Exception {
+        assertEquals(2, statements(get(TRANSACTIONS_URL, user.getId(), wallet.getId()), null));
+    }
+
+    private long statements(MockHttpServletRequestBuilder request, TransactionDto body) throws Exception {
+        statistics.clear();
+        perform(request, body);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void perform(MockHttpServletRequestBuilder request, TransactionDto body) throws Exception {
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+        }
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+    }
+}
@@ -77,8 +77,8 @@ public class WalletControllerTest {
     public void getWalletsSuccessfullyWhenUserExists() throws Exception {
         Long userId = 1L;
         List<WalletResponseDto> walletResponseDtos = List.of(
-                new WalletResponseDto(1L, 1000.0, Currency.INR),
-                new WalletResponseDto(2L, 2000.0, Currency.USD)
+                new WalletResponseDto(1L, 1000L, Currency.INR),
+                new WalletResponseDto(2L, 2000L, Currency.USD)
         );
         when(walletService.getWallets(userId)).thenReturn(walletResponseDtos);
 
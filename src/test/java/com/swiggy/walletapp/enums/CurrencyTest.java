@@ -0,0 +1,59 @@
+package com.swiggy.walletapp.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CurrencyTest {
+
+    @Test
+    void convertToIsExactForWholeRates() {
+        assertEquals(8300L, Currency.USD.convertTo(Currency.INR, 100L));
+        assertEquals(9000L, Currency.EUR.convertTo(Currency.INR, 100L));
+        assertEquals(12345L, Currency.INR.convertTo(Currency.INR, 12345L));
+    }
+
+    @Test
+    void convertToRoundsOnceInTargetCurrency() {
+        // 100 paise = 1.2048... cents
+        assertEquals(1L, Currency.INR.convertTo(Currency.USD, 100L));
+        // 8300 * 83 / 90 = 7654.33... cents
+        assertEquals(7654L, Currency.USD.convertTo(Currency.EUR, 8300L));
+    }
+
+    @Test
+    void convertToRejectsOverflow() {
+        assertThrows(ArithmeticException.class, () -> Currency.USD.convertTo(Currency.INR, Long.MAX_VALUE / 10));
+    }
+
+    @Test
+    void toMinorUnitsRoundsExternalAmountsByCurrencyRoundingMode() {
+        assertEquals(30L, Currency.INR.toMinorUnits(0.1 + 0.2));
+        assertEquals(12L, Currency.INR.toMinorUnits(0.125));
+        assertEquals(14L, Currency.INR.toMinorUnits(0.135));
+        assertEquals(-12L, Currency.INR.toMinorUnits(-0.125));
+    }
+
+    @Test
+    void toMajorUnitsScalesByFractionDigits() {
+        assertEquals(12.34, Currency.USD.toMajorUnits(1234L));
+    }
+
+    @Test
+    void divideHonoursEveryRoundingMode() {
+        assertEquals(2L, Currency.divide(5, 2, RoundingMode.HALF_EVEN));
+        assertEquals(4L, Currency.divide(7, 2, RoundingMode.HALF_EVEN));
+        assertEquals(3L, Currency.divide(5, 2, RoundingMode.HALF_UP));
+        assertEquals(2L, Currency.divide(5, 2, RoundingMode.HALF_DOWN));
+        assertEquals(-3L, Currency.divide(-5, 2, RoundingMode.HALF_UP));
+        assertEquals(-3L, Currency.divide(-5, 2, RoundingMode.FLOOR));
+        assertEquals(-2L, Currency.divide(-5, 2, RoundingMode.CEILING));
+        assertEquals(-3L, Currency.divide(-5, 2, RoundingMode.UP));
+        assertEquals(-2L, Currency.divide(-5, 2, RoundingMode.DOWN));
+        assertEquals(3L, Currency.divide(6, 2, RoundingMode.UNNECESSARY));
+        assertThrows(ArithmeticException.class, () -> Currency.divide(5, 2, RoundingMode.UNNECESSARY));
+    }
+}
@@ -0,0 +1,73 @@
+package com.swiggy.walletapp.enums;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A USD deposit into an INR wallet followed by a withdrawal, repeated over a batch of amounts, in each money
+ * representation. Run through {@link MoneyArithmeticBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyArithmeticBenchmark {
+
+    private static final int AMOUNTS = 1024;
+    private static final BigDecimal USD_RATE = BigDecimal.valueOf(83);
+
+    private final long[] minorAmounts = new long[AMOUNTS];
+    private final double[] doubleAmounts = new double[AMOUNTS];
+    private final BigDecimal[] decimalAmounts = new BigDecimal[AMOUNTS];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < AMOUNTS; i++) {
+            long cents = 1 + i * 37L;
+            minorAmounts[i] = cents;
+            doubleAmounts[i] = cents / 100.0;
+            decimalAmounts[i] = BigDecimal.valueOf(cents, 2);
+        }
+    }
+
+    @Benchmark
+    public long longMinorUnits() {
+        long balance = 0;
+        for (long amount : minorAmounts) {
+            long converted = Currency.USD.convertTo(Currency.INR, amount);
+            balance += converted;
+            balance -= converted / 2;
+        }
+        return balance;
+    }
+
+    @Benchmark
+    public double doubleMajorUnits() {
+        double balance = 0;
+        for (double amount : doubleAmounts) {
+            double converted = amount * 83.0;
+            balance += converted;
+            balance -= converted / 2;
+        }
+        return balance;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal balance = BigDecimal.ZERO;
+        for (BigDecimal amount : decimalAmounts) {
+            BigDecimal converted = amount.multiply(USD_RATE).setScale(2, RoundingMode.HALF_EVEN);
+            balance = balance.add(converted);
+            balance = balance.subtract(converted.divide(BigDecimal.valueOf(2), 2, RoundingMode.DOWN));
+        }
+        return balance;
+    }
+}
@@ -0,0 +1,46 @@
+package com.swiggy.walletapp.enums;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+public class MoneyArithmeticBenchmarkTest {
+
+    @Test
+    void longMinorUnitsAreExactAndAllocationFree() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(MoneyArithmeticBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .jvmArgsAppend("-cp", System.getProperty("java.class.path"))
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertEquals(3, results.size());
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            double score = result.getPrimaryResult().getScore();
+            double allocated = result.getSecondaryResults().get("gc.alloc.rate.norm").getScore();
+            System.out.printf("%s: %.1f ns/op, %.1f B/op%n", benchmark.substring(benchmark.lastIndexOf('.') + 1), score, allocated);
+            if (benchmark.endsWith("longMinorUnits")) {
+                assertTrue(allocated < 1, "long minor-unit arithmetic should not allocate");
+            }
+        }
+    }
+}
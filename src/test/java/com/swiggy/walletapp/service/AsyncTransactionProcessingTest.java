@@ -0,0 +1,228 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.dto.TransactionRequestDto;
+import com.swiggy.walletapp.entity.TransactionRequest;
+import com.swiggy.walletapp.entity.User;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.TransactionStatus;
+import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.exception.InvalidAmountException;
+import com.swiggy.walletapp.exception.TransactionRequestNotFoundException;
+import com.swiggy.walletapp.repository.TransactionRequestRepository;
+import com.swiggy.walletapp.repository.UserRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Sweeps are triggered by the tests themselves, so the scheduled one is pushed out of the way.
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:asyncdb;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "wallet.async.sweep-interval=PT1H"})
+@ActiveProfiles("test")
+public class AsyncTransactionProcessingTest {
+
+    @Autowired
+    private TransactionRequestService transactionRequestService;
+    @Autowired
+    private TransactionRequestProcessor transactionRequestProcessor;
+    @Autowired
+    private TransactionRequestRepository transactionRequestRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("async-" + System.nanoTime(), "password"));
+    }
+
+    @Test
+    void acceptedTransactionIsAppliedInTheBackground() throws Exception {
+        Wallet wallet = walletRepository.save(new Wallet(user, Currency.INR));
+
+        TransactionRequestDto accepted = transactionRequestService.submit(user.getId(), wallet.getId(),
+                new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.INR));
+        TransactionRequestDto completed = await(wallet, accepted.getId());
+
+        assertEquals(TransactionStatus.PENDING, accepted.getStatus());
+        assertEquals(TransactionStatus.COMPLETED, completed.getStatus());
+        assertEquals(100L, balance(wallet));
+        assertEquals(1L, ledgerEntries(wallet));
+    }
+
+    @Test
+    void transactionsOfOneWalletAreAppliedInSubmissionOrder() throws Exception {
+        Wallet wallet = walletRepository.save(new Wallet(user, Currency.INR));
+        List<TransactionDto> transactions = List.of(
+                new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.INR),
+                new TransactionDto(TransactionType.WITHDRAWAL, 80L, Currency.INR),
+                new TransactionDto(TransactionType.WITHDRAWAL, 80L, Currency.INR),
+                new TransactionDto(TransactionType.DEPOSIT, 60L, Currency.INR),
+                new TransactionDto(TransactionType.WITHDRAWAL, 80L, Currency.INR));
+
+        List<Long> ids = new ArrayList<>();
+        for (TransactionDto transaction : transactions) {
+            ids.add(transactionRequestService.submit(user.getId(), wallet.getId(), transaction).getId());
+        }
+        List<TransactionRequestDto> results = new ArrayList<>();
+        for (Long id : ids) {
+            results.add(await(wallet, id));
+        }
+
+        assertEquals(List.of(TransactionStatus.COMPLETED, TransactionStatus.COMPLETED, TransactionStatus.FAILED,
+                TransactionStatus.COMPLETED, TransactionStatus.COMPLETED), results.stream().map(TransactionRequestDto::getStatus).toList());
+        assertEquals("Insufficient funds", results.get(2).getMessage());
+        assertEquals(0L, balance(wallet));
+    }
+
+    @Test
+    void invalidTransactionIsRejectedBeforeItIsStored() {
+        Wallet wallet = walletRepository.save(new Wallet(user, Currency.INR));
+        long stored = transactionRequestRepository.count();
+
+        assertThrows(InvalidAmountException.class, () -> transactionRequestService.submit(user.getId(), wallet.getId(),
+                new TransactionDto(TransactionType.DEPOSIT, -1L, Currency.INR)));
+
+        assertEquals(stored, transactionRequestRepository.count());
+    }
+
+    @Test
+    void amountsAreConvertedOnlyByTheWorker() throws Exception {
+        Wallet wallet = walletRepository.save(new Wallet(user, Currency.INR));
+        double conversions = conversions();
+
+        Long id = transactionRequestService.submit(user.getId(), wallet.getId(),
+                new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.USD)).getId();
+
+        assertEquals(TransactionStatus.COMPLETED, await(wallet, id).getStatus());
+        assertEquals(conversions + 1, conversions());
+    }
+
+    @Test
+    void statusIsOnlyVisibleThroughItsOwnWallet() throws Exception {
+        Wallet wallet = walletRepository.save(new Wallet(user, Currency.INR));
+        Wallet other = walletRepository.save(new Wallet(user, Currency.INR));
+        Long id = transactionRequestService.submit(user.getId(), wallet.getId(),
+                new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.INR)).getId();
+        await(wallet, id);
+
+        assertThrows(TransactionRequestNotFoundException.class, () -> transactionRequestService.getRequest(user.getId(), other.getId(), id));
+    }
+
+    @Test
+    void requestsWhoseClaimExpiredAreClaimedAgainAndAppliedOnce() throws Exception {
+        Wallet wallet = walletRepository.save(new Wallet(user, Currency.INR));
+        TransactionRequest request = storeClaimedRequest(wallet, LocalDateTime.now().minusSeconds(1), 1);
+
+        transactionRequestProcessor.claimExpiredRequests();
+        transactionRequestProcessor.claimExpiredRequests();
+        await(wallet, request.getId());
+        // Let a second copy of the request, if one was queued, reach the worker before checking the balance.
+        CompletableFuture<Void> requeued = transactionRequestProcessor.completion(request.getId());
+        transactionRequestProcessor.enqueue(request);
+        requeued.get(10, TimeUnit.SECONDS);
+
+        assertEquals(TransactionStatus.COMPLETED, transactionRequestService.getRequest(user.getId(), wallet.getId(), request.getId()).getStatus());
+        assertEquals(100L, balance(wallet));
+        assertEquals(1L, ledgerEntries(wallet));
+    }
+
+    @Test
+    void requestsClaimedByAnotherInstanceAreLeftToIt() throws Exception {
+        Wallet wallet = walletRepository.save(new Wallet(user, Currency.INR));
+        TransactionRequest request = storeClaimedRequest(wallet, LocalDateTime.now().plusMinutes(1), 1);
+
+        transactionRequestProcessor.claimExpiredRequests();
+        CompletableFuture<Void> skipped = transactionRequestProcessor.completion(request.getId());
+        transactionRequestProcessor.enqueue(request);
+        skipped.get(10, TimeUnit.SECONDS);
+
+        assertEquals(TransactionStatus.PENDING, transactionRequestService.getRequest(user.getId(), wallet.getId(), request.getId()).getStatus());
+        assertEquals(0L, balance(wallet));
+    }
+
+    @Test
+    void requestsAreFailedOnceTheyRunOutOfAttempts() {
+        Wallet wallet = walletRepository.save(new Wallet(user, Currency.INR));
+        TransactionRequest request = storeClaimedRequest(wallet, LocalDateTime.now().minusSeconds(1), 5);
+
+        transactionRequestProcessor.claimExpiredRequests();
+
+        TransactionRequestDto failed = transactionRequestService.getRequest(user.getId(), wallet.getId(), request.getId());
+        assertEquals(TransactionStatus.FAILED, failed.getStatus());
+        assertEquals("Gave up after 5 attempts", failed.getMessage());
+        assertEquals(0L, balance(wallet));
+    }
+
+    @Test
+    void waitersAreForgottenWhetherTheRequestSettlesOrTheWaitTimesOut() throws Exception {
+        Wallet wallet = walletRepository.save(new Wallet(user, Currency.INR));
+        TransactionRequest elsewhere = storeClaimedRequest(wallet, LocalDateTime.now().plusMinutes(1), 1);
+        Long completed = transactionRequestService.submit(user.getId(), wallet.getId(),
+                new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.INR)).getId();
+
+        TransactionRequestDto timedOut = transactionRequestService.awaitRequest(user.getId(), wallet.getId(), elsewhere.getId(),
+                Duration.ofMillis(50)).get(10, TimeUnit.SECONDS);
+        await(wallet, completed);
+        transactionRequestService.awaitRequest(user.getId(), wallet.getId(), completed, Duration.ofSeconds(5)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(TransactionStatus.PENDING, timedOut.getStatus());
+        assertEquals(0.0, meterRegistry.get("wallet.async.waiters").gauge().value());
+    }
+
+    private TransactionRequest storeClaimedRequest(Wallet wallet, LocalDateTime claimedUntil, int claims) {
+        TransactionRequest request = new TransactionRequest(user.getId(), wallet.getId(), new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.INR));
+        for (int i = 0; i < claims; i++) {
+            request.claim("another-instance", claimedUntil);
+        }
+        return transactionRequestRepository.save(request);
+    }
+
+    private TransactionRequestDto await(Wallet wallet, Long id) throws Exception {
+        TransactionRequestDto request = transactionRequestService.getRequest(user.getId(), wallet.getId(), id);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (request.getStatus() == TransactionStatus.PENDING && System.nanoTime() < deadline) {
+            request = transactionRequestService.awaitRequest(user.getId(), wallet.getId(), id, Duration.ofSeconds(5)).get(10, TimeUnit.SECONDS);
+        }
+        return request;
+    }
+
+    private double conversions() {
+        return meterRegistry.find("conversion.rate.cache").counters().stream()
+                .filter(counter -> !"skipped".equals(counter.getId().getTag("result")))
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private Long ledgerEntries(Wallet wallet) {
+        return jdbcTemplate.queryForObject("select count(*) from ledger_entry where wallet_id = ?", Long.class, wallet.getId());
+    }
+
+    private long balance(Wallet wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getBalance();
+    }
+}
@@ -0,0 +1,181 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.dto.BulkTransactionDto;
+import com.swiggy.walletapp.dto.BulkTransactionResultDto;
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.entity.User;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.TransactionStatus;
+import com.swiggy.walletapp.exception.InvalidBatchException;
+import com.swiggy.walletapp.repository.UserRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.swiggy.walletapp.enums.TransactionType.DEPOSIT;
+import static com.swiggy.walletapp.enums.TransactionType.TRANSFER;
+import static com.swiggy.walletapp.enums.TransactionType.WITHDRAWAL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BulkTransactionServiceTest {
+
+    @Autowired
+    private BulkTransactionService bulkTransactionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("bulk-" + System.nanoTime(), "password"));
+    }
+
+    @Test
+    void appliesEachItemAndReportsFailuresWithoutRejectingTheBatch() {
+        Wallet payout = walletRepository.save(new Wallet(1000L, user, Currency.INR));
+        Wallet savings = walletRepository.save(new Wallet(user, Currency.INR));
+        User other = userRepository.save(new User("bulk-other-" + System.nanoTime(), "password"));
+        Wallet recipient = walletRepository.save(new Wallet(other, Currency.INR));
+
+        List<BulkTransactionResultDto> results = bulkTransactionService.createTransactions(user.getId(), List.of(
+                new BulkTransactionDto(savings.getId(), DEPOSIT, 300L, Currency.INR),
+                new BulkTransactionDto(payout.getId(), WITHDRAWAL, 200L, Currency.INR),
+                new BulkTransactionDto(payout.getId(), TRANSFER, 100L, recipient.getId()),
+                new BulkTransactionDto(savings.getId(), WITHDRAWAL, 10_000L, Currency.INR),
+                new BulkTransactionDto(payout.getId(), DEPOSIT, -5L, Currency.INR),
+                new BulkTransactionDto(recipient.getId(), WITHDRAWAL, 1L, Currency.INR),
+                new BulkTransactionDto(payout.getId(), TRANSFER, 1L, -1L)));
+
+        assertEquals(List.of(
+                BulkTransactionResultDto.completed(0, 300L),
+                BulkTransactionResultDto.completed(1, 200L),
+                BulkTransactionResultDto.completed(2, 100L),
+                BulkTransactionResultDto.failed(3, "Insufficient funds"),
+                BulkTransactionResultDto.failed(4, "Deposit amount must be positive"),
+                BulkTransactionResultDto.failed(5, "Unauthorized access to wallet"),
+                BulkTransactionResultDto.failed(6, "Recipient wallet not found")), results);
+        assertEquals(700L, balance(payout));
+        assertEquals(300L, balance(savings));
+        assertEquals(100L, balance(recipient));
+        assertEquals(2L, ledgerEntries(payout));
+        assertEquals(1L, ledgerEntries(recipient));
+    }
+
+    @Test
+    void checksFundsInSubmissionOrder() {
+        Wallet wallet = walletRepository.save(new Wallet(100L, user, Currency.INR));
+
+        List<BulkTransactionResultDto> results = bulkTransactionService.createTransactions(user.getId(), List.of(
+                new BulkTransactionDto(wallet.getId(), WITHDRAWAL, 80L, Currency.INR),
+                new BulkTransactionDto(wallet.getId(), WITHDRAWAL, 80L, Currency.INR),
+                new BulkTransactionDto(wallet.getId(), DEPOSIT, 60L, Currency.INR),
+                new BulkTransactionDto(wallet.getId(), WITHDRAWAL, 80L, Currency.INR)));
+
+        assertEquals(List.of(TransactionStatus.COMPLETED, TransactionStatus.FAILED, TransactionStatus.COMPLETED, TransactionStatus.COMPLETED),
+                results.stream().map(BulkTransactionResultDto::getStatus).toList());
+        assertEquals(0L, balance(wallet));
+    }
+
+    @Test
+    void appliesChunksWithOneLockQueryAndBatchedWrites() {
+        List<Wallet> wallets = IntStream.range(0, 5)
+                .mapToObj(i -> walletRepository.save(new Wallet(user, Currency.INR)))
+                .toList();
+        List<BulkTransactionDto> deposits = IntStream.range(0, 500)
+                .mapToObj(i -> new BulkTransactionDto(wallets.get(i % wallets.size()).getId(), DEPOSIT, 10L, Currency.INR))
+                .toList();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BulkTransactionResultDto> results = bulkTransactionService.createTransactions(user.getId(), deposits);
+
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == TransactionStatus.COMPLETED));
+        // 10 chunks of 50: one lock query, one wallet update batch and one ledger insert batch each, plus the
+        // ownership query, the shard lookups of new wallets and a sequence call per block of ledger ids
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 50, "prepared " + statements + " statements for 500 items");
+        assertEquals(500, statistics.getEntityInsertCount());
+        wallets.forEach(wallet -> assertEquals(1000L, balance(wallet)));
+    }
+
+    @Test
+    void anyFailureOfAChunkFailsItsItemsAndRollsItBack() {
+        Wallet wallet = walletRepository.save(new Wallet(user, Currency.INR));
+        List<BulkTransactionService.PreparedTransaction> chunk = List.of(
+                bulkTransactionService.prepare(user.getId(), wallet.getId(), new TransactionDto(DEPOSIT, 100L, Currency.INR)));
+
+        List<BulkTransactionService.Outcome> outcomes = bulkTransactionService.apply(chunk, applied -> {
+            throw new IllegalStateException("recording failed");
+        });
+
+        assertEquals(1, outcomes.size());
+        assertEquals("recording failed", outcomes.get(0).failure().getMessage());
+        assertEquals(0L, balance(wallet));
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedBatches() {
+        assertThrows(InvalidBatchException.class, () -> bulkTransactionService.createTransactions(user.getId(), List.of()));
+        List<BulkTransactionDto> oversized = new ArrayList<>();
+        for (int i = 0; i <= 10_000; i++)
+            oversized.add(new BulkTransactionDto(1L, DEPOSIT, 1L, Currency.INR));
+        assertThrows(InvalidBatchException.class, () -> bulkTransactionService.createTransactions(user.getId(), oversized));
+    }
+
+    @Tag("benchmark")
+    @Test
+    void bulkThroughputScalesWithBatchSize() {
+        List<Wallet> wallets = IntStream.range(0, 20)
+                .mapToObj(i -> walletRepository.save(new Wallet(user, Currency.INR)))
+                .toList();
+        run(wallets, 2_000, 100);
+        for (int batchSize : new int[]{1, 10, 100, 1_000}) {
+            run(wallets, 20_000, batchSize);
+        }
+    }
+
+    private void run(List<Wallet> wallets, int items, int batchSize) {
+        long begin = System.nanoTime();
+        for (int from = 0; from < items; from += batchSize) {
+            List<BulkTransactionDto> batch = IntStream.range(from, Math.min(from + batchSize, items))
+                    .mapToObj(i -> new BulkTransactionDto(wallets.get(i % wallets.size()).getId(), DEPOSIT, 1L, Currency.INR))
+                    .toList();
+            bulkTransactionService.createTransactions(user.getId(), batch);
+        }
+        long elapsedMillis = Math.max(Duration.ofNanos(System.nanoTime() - begin).toMillis(), 1);
+        System.out.printf("batch size %d: %d deposits in %d ms (%.0f/s)%n", batchSize, items, elapsedMillis, items * 1000.0 / elapsedMillis);
+    }
+
+    private Long ledgerEntries(Wallet wallet) {
+        return jdbcTemplate.queryForObject("select count(*) from ledger_entry where wallet_id = ?", Long.class, wallet.getId());
+    }
+
+    private long balance(Wallet wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getBalance();
+    }
+}
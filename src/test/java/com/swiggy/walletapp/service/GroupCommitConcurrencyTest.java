@@ -0,0 +1,140 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.entity.User;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.exception.InsufficientFundsException;
+import com.swiggy.walletapp.repository.UserRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:groupcommitdb;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "wallet.group-commit.enabled=true"
+})
+@ActiveProfiles("test")
+public class GroupCommitConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int DEPOSITS_PER_THREAD = 50;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private WalletService walletService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentTransactionsShareCommitsAndAllLand() throws Exception {
+        User user = userRepository.save(new User("group-" + System.nanoTime(), "password"));
+        List<Wallet> wallets = IntStream.range(0, 4)
+                .mapToObj(i -> walletRepository.save(new Wallet(user, Currency.INR)))
+                .toList();
+        double groupsBefore = meterRegistry.get("wallet.group-commit.batch.size").summary().count();
+
+        runConcurrently(THREADS, DEPOSITS_PER_THREAD, (i) -> transactionService.createTransaction(user.getId(),
+                wallets.get(i % wallets.size()).getId(), new TransactionDto(TransactionType.DEPOSIT, 10L, Currency.INR)));
+
+        int deposits = THREADS * DEPOSITS_PER_THREAD;
+        for (Wallet wallet : wallets) {
+            assertEquals(deposits / wallets.size() * 10L, walletRepository.findById(wallet.getId()).orElseThrow().getBalance());
+        }
+        Long ledgerEntries = jdbcTemplate.queryForObject("select count(*) from ledger_entry where wallet_id in (?, ?, ?, ?)", Long.class,
+                wallets.stream().map(Wallet::getId).toArray());
+        assertEquals(deposits, ledgerEntries);
+        double groups = meterRegistry.get("wallet.group-commit.batch.size").summary().count() - groupsBefore;
+        assertTrue(groups < deposits, deposits + " transactions committed in " + groups + " groups");
+    }
+
+    @Test
+    void groupedTransactionsRaiseTheSameFailuresAsUnbatchedOnes() {
+        User user = userRepository.save(new User("group-funds-" + System.nanoTime(), "password"));
+        Wallet wallet = walletRepository.save(new Wallet(50L, user, Currency.INR));
+
+        assertThrows(InsufficientFundsException.class, () -> transactionService.createTransaction(user.getId(), wallet.getId(),
+                new TransactionDto(TransactionType.WITHDRAWAL, 100L, Currency.INR)));
+        transactionService.createTransaction(user.getId(), wallet.getId(), new TransactionDto(TransactionType.WITHDRAWAL, 50L, Currency.INR));
+
+        assertEquals(0L, walletRepository.findById(wallet.getId()).orElseThrow().getBalance());
+    }
+
+    @Tag("benchmark")
+    @Test
+    void groupCommitThroughputAgainstOneCommitPerTransaction() throws Exception {
+        User user = userRepository.save(new User("group-bench-" + System.nanoTime(), "password"));
+        List<Wallet> wallets = IntStream.range(0, 64)
+                .mapToObj(i -> walletRepository.save(new Wallet(user, Currency.INR)))
+                .toList();
+        Consumer<Integer> grouped = i -> transactionService.createTransaction(user.getId(),
+                wallets.get(i % wallets.size()).getId(), new TransactionDto(TransactionType.DEPOSIT, 1L, Currency.INR));
+        Consumer<Integer> unbatched = i -> walletService.deposit(user.getId(), wallets.get(i % wallets.size()).getId(), Currency.INR, 1L);
+
+        runConcurrently(32, 100, grouped);
+        runConcurrently(32, 100, unbatched);
+        double unbatchedRate = measure("one commit per transaction", unbatched);
+        double groupedRate = measure("group commit", grouped);
+        System.out.printf("group/unbatched commit throughput: %.2fx%n", groupedRate / unbatchedRate);
+    }
+
+    private double measure(String mode, Consumer<Integer> operation) throws Exception {
+        int threads = 32;
+        int perThread = 500;
+        long begin = System.nanoTime();
+        runConcurrently(threads, perThread, operation);
+        long elapsedMillis = Math.max(Duration.ofNanos(System.nanoTime() - begin).toMillis(), 1);
+        double throughput = threads * perThread * 1000.0 / elapsedMillis;
+        System.out.printf("%s: %d deposits from %d threads in %d ms (%.0f/s)%n", mode, threads * perThread, threads, elapsedMillis, throughput);
+        return throughput;
+    }
+
+    private void runConcurrently(int threads, int perThread, Consumer<Integer> operation) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int offset = thread;
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    operation.accept(offset + i * threads);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(5, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,99 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.entity.LedgerEntry;
+import com.swiggy.walletapp.entity.User;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.LedgerEntryType;
+import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.repository.LedgerEntryRepository;
+import com.swiggy.walletapp.repository.UserRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class LedgerBatchInsertTest {
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User("batch-" + System.nanoTime(), "password"));
+        wallet = walletRepository.save(new Wallet(user, Currency.INR));
+    }
+
+    @Test
+    void ledgerEntriesAreInsertedInJdbcBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        insert(500, null);
+
+        // 10 batches of 50 inserts, plus one sequence call per block of 50 ids
+        assertTrue(statistics.getPrepareStatementCount() <= 21, "prepared " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(500, statistics.getEntityInsertCount());
+    }
+
+    @Tag("benchmark")
+    @Test
+    void bulkLedgerInsertThroughputWithAndWithoutBatching() {
+        insert(5_000, null);
+        double unbatched = run("unbatched", 1);
+        double batched = run("batched", null);
+
+        System.out.printf("batched/unbatched insert throughput: %.2fx%n", batched / unbatched);
+    }
+
+    private double run(String mode, Integer jdbcBatchSize) {
+        int rows = 50_000;
+        long begin = System.nanoTime();
+        insert(rows, jdbcBatchSize);
+        long elapsedMillis = Math.max(Duration.ofNanos(System.nanoTime() - begin).toMillis(), 1);
+        double throughput = rows * 1000.0 / elapsedMillis;
+        System.out.printf("%s: %d ledger entries in %d ms (%.0f/s)%n", mode, rows, elapsedMillis, throughput);
+        return throughput;
+    }
+
+    private void insert(int rows, Integer jdbcBatchSize) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jdbcBatchSize != null)
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            List<LedgerEntry> entries = IntStream.rangeClosed(1, rows)
+                    .mapToObj(amount -> new LedgerEntry(wallet, LedgerEntryType.CREDIT, TransactionType.DEPOSIT, amount, null))
+                    .toList();
+            ledgerEntryRepository.saveAll(entries);
+        });
+    }
+}
@@ -1,66 +1,201 @@
 package com.swiggy.walletapp.service;
 
-import com.swiggy.walletapp.dto.MoneyConversionRequest;
-import com.swiggy.walletapp.dto.MoneyConversionResponse;
+import com.swiggy.walletapp.client.ConversionClient;
+import com.swiggy.walletapp.config.ConversionProperties;
 import com.swiggy.walletapp.dto.MoneyDto;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.exception.ConversionUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 public class MoneyConversionServiceTest {
 
-    private static final String CONVERSION_URL = "http://host.docker.internal:8085/convertedMoney";
-
-    private RestTemplate restTemplate;
+    private ConversionClient conversionClient;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
     private MoneyConversionService moneyConversionService;
 
     @BeforeEach
     void setUp() {
-        restTemplate = mock(RestTemplate.class);
-        moneyConversionService = new MoneyConversionService(restTemplate);
+        conversionClient = mock(ConversionClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        moneyConversionService = new MoneyConversionService(conversionClient, new ConversionProperties(), meterRegistry, clock);
     }
 
     @Test
     void convertMoneySuccessfully() {
         MoneyDto money = new MoneyDto("USD", 100.0);
-        String toCurrency = "INR";
-        MoneyConversionRequest request = new MoneyConversionRequest(money, toCurrency);
-        MoneyConversionResponse response = new MoneyConversionResponse(new MoneyDto("INR", 7500.0));
-        when(restTemplate.postForEntity(CONVERSION_URL, request, MoneyConversionResponse.class))
-                .thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+        stubRate("USD", "INR", 75.0);
 
-        MoneyDto result = moneyConversionService.convertMoney(money, toCurrency);
+        MoneyDto result = moneyConversionService.convertMoney(money, "INR");
 
         assertEquals("INR", result.getCurrency());
         assertEquals(7500.0, result.getAmount());
     }
 
     @Test
-    void convertMoneyThrowsExceptionWhenResponseIsNull() {
-        MoneyDto money = new MoneyDto("USD", 100.0);
-        String toCurrency = "INR";
-        MoneyConversionRequest request = new MoneyConversionRequest(money, toCurrency);
-        when(restTemplate.postForEntity(CONVERSION_URL, request, MoneyConversionResponse.class))
-                .thenReturn(new ResponseEntity<>(null, HttpStatus.OK));
+    void convertMoneyFetchesTheRateForAReferenceAmountRatherThanTheCallersAmount() {
+        stubRate("USD", "INR", 83.123456);
+
+        MoneyDto tiny = moneyConversionService.convertMoney(new MoneyDto("USD", 0.01), "INR");
+        MoneyDto large = moneyConversionService.convertMoney(new MoneyDto("USD", 1000.0), "INR");
 
-        assertThrows(RuntimeException.class, () -> moneyConversionService.convertMoney(money, toCurrency));
+        assertEquals(0.83123456, tiny.getAmount(), 1e-9);
+        assertEquals(83123.456, large.getAmount(), 1e-6);
+        verify(conversionClient, times(1)).convert(any(), any());
     }
 
     @Test
-    void convertMoneyThrowsExceptionWhenResponseBodyIsNull() {
+    void convertMoneyRethrowsInvalidResponseFailures() {
         MoneyDto money = new MoneyDto("USD", 100.0);
-        String toCurrency = "INR";
-        MoneyConversionRequest request = new MoneyConversionRequest(money, toCurrency);
-        when(restTemplate.postForEntity(CONVERSION_URL, request, MoneyConversionResponse.class))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(conversionClient.convert(reference("USD"), "INR"))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Invalid response from currency conversion service")));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> moneyConversionService.convertMoney(money, "INR"));
+
+        assertEquals("Invalid response from currency conversion service", e.getMessage());
+    }
+
+    @Test
+    void convertMoneySkipsRemoteCallWhenCurrenciesMatch() {
+        MoneyDto result = moneyConversionService.convertMoney(new MoneyDto("INR", 100.0), "INR");
+
+        assertEquals(new MoneyDto("INR", 100.0), result);
+        verifyNoInteractions(conversionClient);
+        assertEquals(1.0, meterRegistry.get("conversion.rate.cache").tag("result", "skipped").counter().count());
+    }
+
+    @Test
+    void convertMoneyServesCachedRateWithinTtl() {
+        stubRate("USD", "INR", 83.0);
+        moneyConversionService.convertMoney(new MoneyDto("USD", 100.0), "INR");
+
+        MoneyDto result = moneyConversionService.convertMoney(new MoneyDto("USD", 2.0), "INR");
+
+        assertEquals(166.0, result.getAmount());
+        verify(conversionClient, times(1)).convert(any(), any());
+        assertEquals(1.0, meterRegistry.get("conversion.rate.cache").tag("result", "miss").counter().count());
+        assertEquals(1.0, meterRegistry.get("conversion.rate.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void convertMoneyServesStaleRateWhenRemoteIsDown() {
+        stubRate("USD", "INR", 80.0);
+        moneyConversionService.convertMoney(new MoneyDto("USD", 100.0), "INR");
+        clock.advance(Duration.ofMinutes(10));
+        stubUnavailable("USD", "INR");
+
+        MoneyDto result = moneyConversionService.convertMoney(new MoneyDto("USD", 1.0), "INR");
+
+        assertEquals(80.0, result.getAmount());
+        assertEquals(1.0, meterRegistry.get("conversion.rate.cache").tag("result", "stale").counter().count());
+    }
+
+    @Test
+    void convertMoneyFallsBackToCurrencyRatesWhenRemoteIsDownAndNothingIsCached() {
+        stubUnavailable("USD", "INR");
+
+        MoneyDto result = moneyConversionService.convertMoney(new MoneyDto("USD", 1.0), "INR");
+
+        assertEquals(new MoneyDto("INR", 83.0), result);
+        assertEquals(1.0, meterRegistry.get("conversion.rate.cache").tag("result", "fallback").counter().count());
+    }
+
+    @Test
+    void convertRoundsRemoteMajorUnitsToTargetMinorUnits() {
+        stubRate("USD", "INR", 124.49999999 / 1.5);
+
+        long result = moneyConversionService.convert(Currency.USD, Currency.INR, 150L);
+
+        assertEquals(12450L, result);
+    }
+
+    @Test
+    void convertSkipsRemoteCallWhenCurrenciesMatch() {
+        assertEquals(150L, moneyConversionService.convert(Currency.INR, Currency.INR, 150L));
+
+        verifyNoInteractions(conversionClient);
+        assertEquals(1.0, meterRegistry.get("conversion.rate.cache").tag("result", "skipped").counter().count());
+    }
+
+    @Test
+    void refreshRatesReplacesCachedRateWithLatestRemoteRate() {
+        stubRate("USD", "INR", 80.0);
+        moneyConversionService.convertMoney(new MoneyDto("USD", 100.0), "INR");
+        stubRate("USD", "INR", 84.0);
+
+        moneyConversionService.refreshRates();
+        MoneyDto result = moneyConversionService.convertMoney(new MoneyDto("USD", 10.0), "INR");
+
+        assertEquals(840.0, result.getAmount());
+    }
+
+    @Test
+    void refreshRatesCountsFailuresAndKeepsCachedRate() {
+        stubRate("USD", "INR", 80.0);
+        moneyConversionService.convertMoney(new MoneyDto("USD", 100.0), "INR");
+        stubUnavailable("USD", "INR");
+
+        moneyConversionService.refreshRates();
+        MoneyDto result = moneyConversionService.convertMoney(new MoneyDto("USD", 10.0), "INR");
+
+        assertEquals(800.0, result.getAmount());
+        assertEquals(1.0, meterRegistry.get("conversion.rate.cache.refresh.failures").counter().count());
+    }
+
+    private void stubRate(String fromCurrency, String toCurrency, double rate) {
+        when(conversionClient.convert(reference(fromCurrency), toCurrency))
+                .thenReturn(CompletableFuture.completedFuture(new MoneyDto(toCurrency, rate * MoneyConversionService.RATE_REFERENCE_AMOUNT)));
+    }
+
+    private void stubUnavailable(String fromCurrency, String toCurrency) {
+        when(conversionClient.convert(reference(fromCurrency), toCurrency)).thenReturn(CompletableFuture.failedFuture(
+                new ConversionUnavailableException("Currency conversion service unavailable", HttpStatus.SERVICE_UNAVAILABLE)));
+    }
+
+    private static MoneyDto reference(String currency) {
+        return new MoneyDto(currency, MoneyConversionService.RATE_REFERENCE_AMOUNT);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
 
-        assertThrows(RuntimeException.class, () -> moneyConversionService.convertMoney(money, toCurrency));
+        @Override
+        public Instant instant() {
+            return now;
+        }
     }
-}
\ No newline at end of file
+}
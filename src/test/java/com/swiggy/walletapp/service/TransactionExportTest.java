@@ -0,0 +1,150 @@
+package com.swiggy.walletapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiggy.walletapp.dto.TransactionResponseDto;
+import com.swiggy.walletapp.entity.User;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.repository.UserRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TransactionExportTest {
+
+    private static final int BATCH_SIZE = 5_000;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User("export-" + System.nanoTime(), "password"));
+        wallet = walletRepository.save(new Wallet(user, Currency.INR));
+    }
+
+    @Test
+    void exportWritesEveryEntryOldestFirstWithoutManagingEntities() throws Exception {
+        insertDeposits(20_000);
+        ManagedEntitySampler sampler = new ManagedEntitySampler();
+
+        transactionExportService.writeTransactions(wallet.getId(), sampler);
+
+        assertEquals(20_000, sampler.lines);
+        assertEquals(0, sampler.maxManagedEntities, "persistence context held " + sampler.maxManagedEntities + " entities");
+        String[] lines = sampler.buffer.toString().split("\n");
+        assertEquals(1L, objectMapper.readValue(lines[0], TransactionResponseDto.class).getAmount());
+        assertEquals(20_000L, objectMapper.readValue(lines[lines.length - 1], TransactionResponseDto.class).getAmount());
+    }
+
+    @Tag("benchmark")
+    @Test
+    void exportOfAMillionEntriesRunsInFlatHeap() throws Exception {
+        insertDeposits(1_000_000);
+        Runtime runtime = Runtime.getRuntime();
+        long baseline = usedHeapAfterGc(runtime);
+        HeapSampler sampler = new HeapSampler(runtime);
+
+        transactionExportService.writeTransactions(wallet.getId(), sampler);
+
+        assertEquals(1_000_000, sampler.lines);
+        long growth = sampler.maxUsedHeap - baseline;
+        assertTrue(growth < 64L * 1024 * 1024, "heap grew by " + growth + " bytes during export");
+    }
+
+    private void insertDeposits(int count) {
+        Timestamp timestamp = Timestamp.valueOf(LocalDateTime.now().withNano(0));
+        for (int from = 1; from <= count; from += BATCH_SIZE) {
+            List<Object[]> rows = IntStream.range(from, Math.min(from + BATCH_SIZE, count + 1))
+                    .mapToObj(amount -> new Object[]{wallet.getId(), "CREDIT", "DEPOSIT", (long) amount, "INR", timestamp})
+                    .toList();
+            jdbcTemplate.batchUpdate("INSERT INTO ledger_entry (id, wallet_id, entry_type, transaction_type, amount, currency, timestamp) "
+                    + "VALUES (NEXT VALUE FOR ledger_entry_seq, ?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    private static long usedHeapAfterGc(Runtime runtime) {
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Counts lines and, at every line break, how many entities the export's persistence context is holding. Writes
+     * happen inside the export transaction, so the shared entity manager resolves to that session.
+     */
+    private class ManagedEntitySampler extends OutputStream {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private int lines;
+        private int maxManagedEntities;
+
+        @Override
+        public void write(int b) {
+            buffer.write(b);
+            if (b == '\n') {
+                lines++;
+                int managed = entityManager.unwrap(SessionImplementor.class).getPersistenceContextInternal().getNumberOfManagedEntities();
+                maxManagedEntities = Math.max(maxManagedEntities, managed);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer.write(b, off, len);
+        }
+    }
+
+    /**
+     * Discards the output and samples used heap after a collection every 100k lines.
+     */
+    private static class HeapSampler extends OutputStream {
+        private final Runtime runtime;
+        private int lines;
+        private long maxUsedHeap;
+
+        HeapSampler(Runtime runtime) {
+            this.runtime = runtime;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % 100_000 == 0) {
+                maxUsedHeap = Math.max(maxUsedHeap, usedHeapAfterGc(runtime));
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
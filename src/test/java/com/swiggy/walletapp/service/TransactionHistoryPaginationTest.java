@@ -0,0 +1,111 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.dto.TransactionPageDto;
+import com.swiggy.walletapp.dto.TransactionResponseDto;
+import com.swiggy.walletapp.entity.LedgerEntry;
+import com.swiggy.walletapp.entity.LedgerEntryView;
+import com.swiggy.walletapp.entity.User;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.repository.LedgerEntryRepository;
+import com.swiggy.walletapp.repository.UserRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TransactionHistoryPaginationTest {
+
+    private static final int DEPOSITS = 7;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private WalletService walletService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("history-" + System.nanoTime(), "password"));
+        wallet = walletRepository.save(new Wallet(user, Currency.INR));
+        for (long amount = 1; amount <= DEPOSITS; amount++) {
+            walletService.deposit(user.getId(), wallet.getId(), Currency.INR, amount);
+        }
+        walletService.withdraw(user.getId(), wallet.getId(), Currency.INR, 1L);
+    }
+
+    @Test
+    void pagesWalkTheWholeHistoryNewestFirstWithoutGapsOrRepeats() {
+        List<Long> amounts = readAll(TransactionType.DEPOSIT, Sort.Direction.DESC);
+
+        assertEquals(LongStream.iterate(DEPOSITS, amount -> amount - 1).limit(DEPOSITS).boxed().toList(), amounts);
+    }
+
+    @Test
+    void pagesWalkTheWholeHistoryOldestFirst() {
+        List<Long> amounts = readAll(null, Sort.Direction.ASC);
+
+        List<Long> expected = new ArrayList<>(LongStream.rangeClosed(1, DEPOSITS).boxed().toList());
+        expected.add(1L);
+        assertEquals(expected, amounts);
+    }
+
+    @Test
+    void pagesAreReadAsProjectionsWithoutManagingEntities() {
+        Integer managed = transactionTemplate.execute(status -> {
+            Window<LedgerEntryView> page = ledgerEntryRepository.findByWalletIdAndTransactionType(wallet.getId(),
+                    TransactionType.WITHDRAWAL, ScrollPosition.keyset(), Sort.by("timestamp", "id"), Limit.of(3));
+            assertEquals(1, page.size());
+            assertFalse(page.getContent().get(0) instanceof LedgerEntry);
+            return entityManager.unwrap(SessionImplementor.class).getPersistenceContextInternal().getNumberOfManagedEntities();
+        });
+
+        assertEquals(0, managed);
+    }
+
+    private List<Long> readAll(TransactionType transactionType, Sort.Direction order) {
+        List<Long> amounts = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionPageDto page = transactionService.getTransactions(user.getId(), wallet.getId(), transactionType, 3, cursor, order);
+            page.getTransactions().stream().map(TransactionResponseDto::getAmount).forEach(amounts::add);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals((amounts.size() + 2) / 3, pages);
+        return amounts;
+    }
+}
@@ -0,0 +1,203 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.entity.IdempotencyRecord;
+import com.swiggy.walletapp.entity.User;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.exception.InsufficientFundsException;
+import com.swiggy.walletapp.exception.InvalidIdempotencyKeyException;
+import com.swiggy.walletapp.repository.IdempotencyRecordRepository;
+import com.swiggy.walletapp.repository.UserRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:idempotencydb;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000")
+@ActiveProfiles("test")
+public class TransactionIdempotencyTest {
+
+    private static final TransactionDto DEPOSIT = new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.INR);
+
+    @Autowired
+    private TransactionIdempotencyService transactionIdempotencyService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BulkTransactionService bulkTransactionService;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private WalletProperties walletProperties;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("idempotency-" + System.nanoTime(), "password"));
+        wallet = walletRepository.save(new Wallet(user, Currency.INR));
+    }
+
+    @Test
+    void replayReturnsTheStoredResultWithoutApplyingAgain() {
+        assertFalse(transactionIdempotencyService.createTransaction(user.getId(), wallet.getId(), "retry-1", DEPOSIT));
+        long cacheHits = requests("cache_hit");
+
+        assertTrue(transactionIdempotencyService.createTransaction(user.getId(), wallet.getId(), "retry-1", DEPOSIT));
+
+        assertEquals(cacheHits + 1, requests("cache_hit"));
+        assertEquals(100L, balance());
+        assertEquals(1L, ledgerEntries());
+    }
+
+    @Test
+    void replayOnAnotherInstanceIsAnsweredFromTheTable() {
+        transactionIdempotencyService.createTransaction(user.getId(), wallet.getId(), "retry-2", DEPOSIT);
+        TransactionIdempotencyService restarted = anotherInstance();
+        long storeHits = requests("store_hit");
+
+        assertTrue(restarted.createTransaction(user.getId(), wallet.getId(), "retry-2", DEPOSIT));
+
+        assertEquals(storeHits + 1, requests("store_hit"));
+        assertEquals(100L, balance());
+    }
+
+    @Test
+    void concurrentDuplicatesCollapseOntoOneExecution() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Boolean>> duplicates = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return transactionIdempotencyService.createTransaction(user.getId(), wallet.getId(), "burst", DEPOSIT);
+                }, executor))
+                .toList();
+        start.countDown();
+
+        long executed = 0;
+        for (CompletableFuture<Boolean> duplicate : duplicates) {
+            if (!duplicate.get(30, TimeUnit.SECONDS))
+                executed++;
+        }
+        executor.shutdown();
+
+        assertEquals(1, executed);
+        assertEquals(100L, balance());
+        assertEquals(1L, ledgerEntries());
+    }
+
+    @Test
+    void concurrentDuplicatesOnTwoInstancesApplyOnce() throws Exception {
+        TransactionIdempotencyService other = anotherInstance();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<CompletableFuture<Boolean>> duplicates = List.of(transactionIdempotencyService, other).stream()
+                .map(instance -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return instance.createTransaction(user.getId(), wallet.getId(), "two-instances", DEPOSIT);
+                }, executor))
+                .toList();
+        start.countDown();
+
+        long executed = 0;
+        for (CompletableFuture<Boolean> duplicate : duplicates) {
+            if (!duplicate.get(30, TimeUnit.SECONDS))
+                executed++;
+        }
+        executor.shutdown();
+
+        assertEquals(1, executed);
+        assertEquals(100L, balance());
+        assertEquals(1L, ledgerEntries());
+    }
+
+    @Test
+    void keyReusedForAnotherTransactionIsRejected() {
+        transactionIdempotencyService.createTransaction(user.getId(), wallet.getId(), "reused", DEPOSIT);
+
+        assertThrows(InvalidIdempotencyKeyException.class, () -> transactionIdempotencyService.createTransaction(user.getId(), wallet.getId(),
+                "reused", new TransactionDto(TransactionType.DEPOSIT, 200L, Currency.INR)));
+        assertEquals(100L, balance());
+    }
+
+    @Test
+    void failedTransactionLeavesItsKeyUnused() {
+        TransactionDto withdrawal = new TransactionDto(TransactionType.WITHDRAWAL, 50L, Currency.INR);
+
+        assertThrows(InsufficientFundsException.class,
+                () -> transactionIdempotencyService.createTransaction(user.getId(), wallet.getId(), "withdraw", withdrawal));
+        assertTrue(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(user.getId(), "withdraw").isEmpty());
+        transactionService.createTransaction(user.getId(), wallet.getId(), DEPOSIT);
+
+        assertFalse(transactionIdempotencyService.createTransaction(user.getId(), wallet.getId(), "withdraw", withdrawal));
+        assertEquals(50L, balance());
+    }
+
+    @Test
+    void keyCommittedElsewhereIsNotAppliedAgain() {
+        idempotencyRecordRepository.save(new IdempotencyRecord(user.getId(), "elsewhere", wallet.getId() + "|DEPOSIT|100|INR|null"));
+
+        assertTrue(transactionIdempotencyService.createTransaction(user.getId(), wallet.getId(), "elsewhere", DEPOSIT));
+        assertEquals(0L, balance());
+        assertEquals(0L, ledgerEntries());
+    }
+
+    private TransactionIdempotencyService anotherInstance() {
+        return new TransactionIdempotencyService(bulkTransactionService, idempotencyRecordRepository, transactionTemplate,
+                walletProperties, meterRegistry);
+    }
+
+    private long requests(String result) {
+        Timer timer = meterRegistry.find("wallet.idempotency.requests").tag("result", result).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private Long ledgerEntries() {
+        return jdbcTemplate.queryForObject("select count(*) from ledger_entry where wallet_id = ?", Long.class, wallet.getId());
+    }
+
+    private long balance() {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getBalance();
+    }
+}
@@ -0,0 +1,109 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.entity.TransactionRequest;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.exception.ConversionUnavailableException;
+import com.swiggy.walletapp.repository.TransactionRequestRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class TransactionRequestProcessorTest {
+
+    private static final TransactionDto DEPOSIT = new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.USD);
+
+    private BulkTransactionService bulkTransactionService;
+    private TransactionRequestRepository transactionRequestRepository;
+    private TransactionRequestProcessor transactionRequestProcessor;
+
+    @BeforeEach
+    void setUp() {
+        bulkTransactionService = mock(BulkTransactionService.class);
+        transactionRequestRepository = mock(TransactionRequestRepository.class);
+        transactionRequestProcessor = new TransactionRequestProcessor(bulkTransactionService, transactionRequestRepository,
+                mock(TransactionTemplate.class), new WalletProperties(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        transactionRequestProcessor.close();
+    }
+
+    @Test
+    void deferredRequestHoldsBackTheLaterRequestsOfItsWallet() {
+        TransactionRequest deferred = request(1L, 10L);
+        TransactionRequest later = request(2L, 10L);
+        TransactionRequest otherWallet = request(3L, 20L);
+        stored(deferred, later, otherWallet);
+        when(bulkTransactionService.prepare(1L, 10L, DEPOSIT))
+                .thenThrow(new ConversionUnavailableException("Currency conversion service unavailable", HttpStatus.SERVICE_UNAVAILABLE));
+        BulkTransactionService.PreparedTransaction prepared = deposit(20L);
+        when(bulkTransactionService.prepare(1L, 20L, DEPOSIT)).thenReturn(prepared);
+        applies(List.of(new BulkTransactionService.Outcome(100L, null)));
+
+        List<TransactionRequest> unsettled = transactionRequestProcessor.process(List.of(deferred, later, otherWallet));
+
+        assertEquals(List.of(deferred, later), unsettled);
+        assertFalse(otherWallet.isPending());
+        verify(bulkTransactionService, times(1)).prepare(1L, 10L, DEPOSIT);
+        verify(bulkTransactionService).apply(eq(List.of(prepared)), any());
+    }
+
+    @Test
+    void chunkThatCannotCommitLeavesAllItsRequestsToBeRetried() {
+        TransactionRequest first = request(1L, 10L);
+        TransactionRequest second = request(2L, 10L);
+        stored(first, second);
+        when(bulkTransactionService.prepare(1L, 10L, DEPOSIT)).thenReturn(deposit(10L));
+        CannotAcquireLockException conflict = new CannotAcquireLockException("lock timeout");
+        when(bulkTransactionService.apply(any(), any())).thenReturn(List.of(
+                BulkTransactionService.Outcome.failed(conflict), BulkTransactionService.Outcome.failed(conflict)));
+
+        List<TransactionRequest> unsettled = transactionRequestProcessor.process(List.of(first, second));
+
+        assertEquals(List.of(first, second), unsettled);
+        assertTrue(first.isPending() && second.isPending());
+    }
+
+    private TransactionRequest request(Long id, Long walletId) {
+        TransactionRequest request = new TransactionRequest(1L, walletId, DEPOSIT);
+        ReflectionTestUtils.setField(request, "id", id);
+        transactionRequestProcessor.claim(request);
+        return request;
+    }
+
+    private static BulkTransactionService.PreparedTransaction deposit(Long walletId) {
+        return new BulkTransactionService.PreparedTransaction(0, TransactionType.DEPOSIT, 1L, null, 0, walletId, 8300L, 1L);
+    }
+
+    private void stored(TransactionRequest... requests) {
+        when(transactionRequestRepository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return List.of(requests).stream().filter(request -> ids.contains(request.getId())).toList();
+        });
+    }
+
+    private void applies(List<BulkTransactionService.Outcome> outcomes) {
+        when(bulkTransactionService.apply(any(), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<List<BulkTransactionService.Outcome>>>getArgument(1).accept(outcomes);
+            return outcomes;
+        });
+    }
+}
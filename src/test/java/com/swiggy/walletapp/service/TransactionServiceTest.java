@@ -1,116 +1,152 @@
 package com.swiggy.walletapp.service;
 
-import com.swiggy.walletapp.dto.MoneyDto;
+import com.swiggy.walletapp.config.WalletProperties;
 import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.dto.TransactionPageDto;
 import com.swiggy.walletapp.dto.TransactionResponseDto;
-import com.swiggy.walletapp.entity.InterTransaction;
-import com.swiggy.walletapp.entity.IntraTransaction;
+import com.swiggy.walletapp.entity.LedgerEntry;
+import com.swiggy.walletapp.entity.LedgerEntryView;
 import com.swiggy.walletapp.entity.User;
 import com.swiggy.walletapp.entity.Wallet;
 import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.LedgerEntryType;
 import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.exception.InvalidPageRequestException;
 import com.swiggy.walletapp.exception.InvalidTransactionTypeException;
 import com.swiggy.walletapp.exception.NoTransactionsFoundException;
 import com.swiggy.walletapp.exception.UnauthorizedAccessException;
-import com.swiggy.walletapp.repository.InterTransactionRepository;
-import com.swiggy.walletapp.repository.IntraTransactionRepository;
+import com.swiggy.walletapp.exception.WalletNotFoundException;
+import com.swiggy.walletapp.repository.LedgerEntryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-
+import org.mockito.InOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class TransactionServiceTest {
 
-    private IntraTransactionRepository intraTransactionRepository;
-    private InterTransactionRepository interTransactionRepository;
-    private MoneyConversionService moneyConversionService;
+    private static final ProjectionFactory PROJECTION_FACTORY = new SpelAwareProxyProjectionFactory();
+
+    private LedgerEntryRepository ledgerEntryRepository;
     private WalletService walletService;
+    private WalletGroupCommitter walletGroupCommitter;
     private TransactionService transactionService;
 
     @BeforeEach
     void setUp() {
-        intraTransactionRepository = mock(IntraTransactionRepository.class);
-        interTransactionRepository = mock(InterTransactionRepository.class);
-        moneyConversionService = mock(MoneyConversionService.class);
+        ledgerEntryRepository = mock(LedgerEntryRepository.class);
         walletService = mock(WalletService.class);
-        transactionService = new TransactionService(intraTransactionRepository, interTransactionRepository, moneyConversionService, walletService);
+        walletGroupCommitter = mock(WalletGroupCommitter.class);
+        transactionService = new TransactionService(ledgerEntryRepository, walletService,
+                new WalletOperationRetry(new WalletProperties(), new SimpleMeterRegistry()),
+                new WalletLockManager(new WalletProperties(), new SimpleMeterRegistry()), mock(WalletShardingService.class),
+                walletGroupCommitter);
     }
 
     @Test
     public void testCreateTransactionThrowsInvalidTransactionTypeExceptionWhenTransactionTypeIsInvalid() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        final TransactionDto transactionDto = new TransactionDto(TransactionType.INVALID, 100.0, Currency.INR);
+        final TransactionDto transactionDto = new TransactionDto(TransactionType.INVALID, 100L, Currency.INR);
 
         assertThrows(InvalidTransactionTypeException.class, () -> transactionService.createTransaction(userId, walletId, transactionDto));
     }
 
+    @Test
+    public void testCreateTransactionHandsOffToGroupCommitWhenEnabled() {
+        final TransactionDto transactionDto = new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.INR);
+        when(walletGroupCommitter.isEnabled()).thenReturn(true);
+
+        transactionService.createTransaction(1L, 1L, transactionDto);
+
+        verify(walletGroupCommitter).commit(1L, 1L, transactionDto);
+        verifyNoInteractions(walletService);
+    }
+
     @Test
     public void testCreateTransactionDepositIncreasesBalanceFrom1000To1100WhenDepositing100() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        final TransactionDto transactionDto = new TransactionDto(TransactionType.DEPOSIT, 100.0, Currency.INR);
-        final MoneyDto moneyDto = new MoneyDto("INR", 100.0);
-        final Wallet wallet = new Wallet(1000.0, new User(userId, "username", "password"), Currency.INR);
-        when(walletService.deposit(userId, walletId, Currency.INR, 100.0)).thenReturn(wallet);
-            when(moneyConversionService.convertMoney(moneyDto, "INR")).thenReturn(new MoneyDto("INR", 100.0));
+        final TransactionDto transactionDto = new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.INR);
+        when(walletService.currencyOf(walletId)).thenReturn(Currency.INR);
+        when(walletService.convert(Currency.INR, Currency.INR, 100L)).thenReturn(100L);
 
         transactionService.createTransaction(userId, walletId, transactionDto);
 
-        verify(walletService).deposit(userId, walletId, Currency.INR, 100.0);
-        verify(intraTransactionRepository).save(any(IntraTransaction.class));
+        verify(walletService).deposit(userId, walletId, Currency.INR, 100L);
     }
 
     @Test
     public void testCreateTransactionDepositIncreasesBalanceFrom2000To2200WhenDepositing200() {
         final Long userId = 2L;
         final Long walletId = 2L;
-        final TransactionDto transactionDto = new TransactionDto(TransactionType.DEPOSIT, 200.0, Currency.USD);
-        final MoneyDto moneyDto = new MoneyDto("USD", 200.0);
-        final Wallet wallet = new Wallet(2000.0, new User(userId, "anotherUsername", "password"), Currency.USD);
-        when(walletService.deposit(userId, walletId, Currency.USD, 200.0)).thenReturn(wallet);
-        when(moneyConversionService.convertMoney(moneyDto, "USD")).thenReturn(new MoneyDto("USD", 200.0));
+        final TransactionDto transactionDto = new TransactionDto(TransactionType.DEPOSIT, 200L, Currency.USD);
+        when(walletService.currencyOf(walletId)).thenReturn(Currency.USD);
+        when(walletService.convert(Currency.USD, Currency.USD, 200L)).thenReturn(200L);
+
+        transactionService.createTransaction(userId, walletId, transactionDto);
+
+        verify(walletService).deposit(userId, walletId, Currency.USD, 200L);
+    }
+
+    @Test
+    public void testCreateTransactionDepositConvertsIntoWalletCurrencyBeforeDepositing() {
+        final Long userId = 1L;
+        final Long walletId = 1L;
+        final TransactionDto transactionDto = new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.USD);
+        when(walletService.currencyOf(walletId)).thenReturn(Currency.INR);
+        when(walletService.convert(Currency.USD, Currency.INR, 100L)).thenReturn(8300L);
 
         transactionService.createTransaction(userId, walletId, transactionDto);
 
-        verify(walletService).deposit(userId, walletId, Currency.USD, 200.0);
-        verify(intraTransactionRepository).save(any(IntraTransaction.class));
+        InOrder inOrder = inOrder(walletService);
+        inOrder.verify(walletService).convert(Currency.USD, Currency.INR, 100L);
+        inOrder.verify(walletService).deposit(userId, walletId, Currency.INR, 8300L);
     }
 
     @Test
     public void testCreateTransactionWithdrawalDecreasesBalanceFrom1000To900WhenWithdrawing100() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        final TransactionDto transactionDto = new TransactionDto(TransactionType.WITHDRAWAL, 100.0, Currency.INR);
-        final MoneyDto moneyDto = new MoneyDto("INR", 100.0);
-        final Wallet wallet = new Wallet(1000.0, new User(userId, "username", "password"), Currency.INR);
-        when(walletService.withdraw(userId, walletId, Currency.INR, 100.0)).thenReturn(wallet);
-        when(moneyConversionService.convertMoney(moneyDto, "INR")).thenReturn(new MoneyDto("INR", 100.0));
+        final TransactionDto transactionDto = new TransactionDto(TransactionType.WITHDRAWAL, 100L, Currency.INR);
+        when(walletService.currencyOf(walletId)).thenReturn(Currency.INR);
+        when(walletService.convert(Currency.INR, Currency.INR, 100L)).thenReturn(100L);
 
         transactionService.createTransaction(userId, walletId, transactionDto);
 
-        verify(walletService).withdraw(userId, walletId, Currency.INR, 100.0);
-        verify(intraTransactionRepository).save(any(IntraTransaction.class));
+        verify(walletService).withdraw(userId, walletId, Currency.INR, 100L);
     }
 
     @Test
     public void testCreateTransactionWithdrawalDecreasesBalanceFrom2000To1800WhenWithdrawing200() {
         final Long userId = 2L;
         final Long walletId = 2L;
-        final TransactionDto transactionDto = new TransactionDto(TransactionType.WITHDRAWAL, 200.0, Currency.USD);
-        final MoneyDto moneyDto = new MoneyDto("USD", 200.0);
-        final Wallet wallet = new Wallet(2000.0, new User(userId, "anotherUsername", "password"), Currency.USD);
-        when(walletService.withdraw(userId, walletId, Currency.USD, 200.0)).thenReturn(wallet);
-        when(moneyConversionService.convertMoney(moneyDto, "USD")).thenReturn(new MoneyDto("USD", 200.0));
+        final TransactionDto transactionDto = new TransactionDto(TransactionType.WITHDRAWAL, 200L, Currency.USD);
+        when(walletService.currencyOf(walletId)).thenReturn(Currency.USD);
+        when(walletService.convert(Currency.USD, Currency.USD, 200L)).thenReturn(200L);
 
         transactionService.createTransaction(userId, walletId, transactionDto);
 
-        verify(walletService).withdraw(userId, walletId, Currency.USD, 200.0);
-        verify(intraTransactionRepository).save(any(IntraTransaction.class));
+        verify(walletService).withdraw(userId, walletId, Currency.USD, 200L);
     }
 
     @Test
@@ -118,18 +154,14 @@ public class TransactionServiceTest {
         final Long userId = 1L;
         final Long senderWalletId = 1L;
         final Long recipientWalletId = 2L;
-        final TransactionDto transactionDto = new TransactionDto(TransactionType.TRANSFER, 100.0, Currency.INR, recipientWalletId);
-        final MoneyDto moneyDto = new MoneyDto("INR", 100.0);
-        final Wallet senderWallet = new Wallet(1000.0, new User(userId, "senderUsername", "password"), Currency.INR);
-        final Wallet recipientWallet = new Wallet(500.0, new User(2L, "recipientUsername", "password"), Currency.INR);
-        when(walletService.fetchUserWallet(userId, senderWalletId)).thenReturn(senderWallet);
-        when(walletService.transfer(userId, senderWalletId, 100.0, recipientWalletId)).thenReturn(recipientWallet);
-        when(moneyConversionService.convertMoney(moneyDto, "INR")).thenReturn(new MoneyDto("INR", 100.0));
+        final TransactionDto transactionDto = new TransactionDto(TransactionType.TRANSFER, 100L, Currency.INR, recipientWalletId);
+        when(walletService.currencyOf(senderWalletId)).thenReturn(Currency.INR);
+        when(walletService.currencyOf(recipientWalletId)).thenReturn(Currency.INR);
+        when(walletService.convert(Currency.INR, Currency.INR, 100L)).thenReturn(100L);
 
         transactionService.createTransaction(userId, senderWalletId, transactionDto);
 
-        verify(walletService).transfer(userId, senderWalletId, 100.0, recipientWalletId);
-        verify(interTransactionRepository).save(any(InterTransaction.class));
+        verify(walletService).transfer(userId, senderWalletId, 100L, recipientWalletId, 100L);
     }
 
     @Test
@@ -137,18 +169,43 @@ public class TransactionServiceTest {
         final Long userId = 2L;
         final Long senderWalletId = 2L;
         final Long recipientWalletId = 3L;
-        final TransactionDto transactionDto = new TransactionDto(TransactionType.TRANSFER, 200.0, Currency.USD, recipientWalletId);
-        final MoneyDto moneyDto = new MoneyDto("USD", 200.0);
-        final Wallet senderWallet = new Wallet(2000.0, new User(userId, "anotherSenderUsername", "password"), Currency.USD);
-        final Wallet recipientWallet = new Wallet(1000.0, new User(3L, "anotherRecipientUsername", "password"), Currency.USD);
-        when(walletService.fetchUserWallet(userId, senderWalletId)).thenReturn(senderWallet);
-        when(walletService.transfer(userId, senderWalletId, 200.0, recipientWalletId)).thenReturn(recipientWallet);
-        when(moneyConversionService.convertMoney(moneyDto, "USD")).thenReturn(new MoneyDto("USD", 200.0));
+        final TransactionDto transactionDto = new TransactionDto(TransactionType.TRANSFER, 200L, Currency.USD, recipientWalletId);
+        when(walletService.currencyOf(senderWalletId)).thenReturn(Currency.USD);
+        when(walletService.currencyOf(recipientWalletId)).thenReturn(Currency.USD);
+        when(walletService.convert(Currency.USD, Currency.USD, 200L)).thenReturn(200L);
 
         transactionService.createTransaction(userId, senderWalletId, transactionDto);
 
-        verify(walletService).transfer(userId, senderWalletId, 200.0, recipientWalletId);
-        verify(interTransactionRepository).save(any(InterTransaction.class));
+        verify(walletService).transfer(userId, senderWalletId, 200L, recipientWalletId, 200L);
+    }
+
+    @Test
+    public void testCreateTransactionTransferConvertsIntoRecipientCurrencyBeforeTransferring() {
+        final Long userId = 1L;
+        final Long senderWalletId = 1L;
+        final Long recipientWalletId = 2L;
+        final TransactionDto transactionDto = new TransactionDto(TransactionType.TRANSFER, 100L, Currency.USD, recipientWalletId);
+        when(walletService.currencyOf(senderWalletId)).thenReturn(Currency.USD);
+        when(walletService.currencyOf(recipientWalletId)).thenReturn(Currency.INR);
+        when(walletService.convert(Currency.USD, Currency.INR, 100L)).thenReturn(8300L);
+
+        transactionService.createTransaction(userId, senderWalletId, transactionDto);
+
+        InOrder inOrder = inOrder(walletService);
+        inOrder.verify(walletService).convert(Currency.USD, Currency.INR, 100L);
+        inOrder.verify(walletService).transfer(userId, senderWalletId, 100L, recipientWalletId, 8300L);
+    }
+
+    @Test
+    public void testCreateTransactionTransferThrowsWalletNotFoundExceptionWhenRecipientWalletNotFound() {
+        final TransactionDto transactionDto = new TransactionDto(TransactionType.TRANSFER, 100L, Currency.INR, 2L);
+        when(walletService.currencyOf(1L)).thenReturn(Currency.INR);
+        when(walletService.currencyOf(2L)).thenThrow(new WalletNotFoundException("Wallet not found", HttpStatus.NOT_FOUND));
+
+        WalletNotFoundException e = assertThrows(WalletNotFoundException.class, () -> transactionService.createTransaction(1L, 1L, transactionDto));
+
+        assertEquals("Recipient wallet not found", e.getMessage());
+        verify(walletService, never()).transfer(any(), any(), anyLong(), any(), anyLong());
     }
 
     @Test
@@ -157,7 +214,7 @@ public class TransactionServiceTest {
         final Long walletId = 1L;
         when(walletService.isUnauthorizedUser(userId, walletId)).thenReturn(true);
 
-        assertThrows(UnauthorizedAccessException.class, () -> transactionService.getTransactions(userId, walletId, null));
+        assertThrows(UnauthorizedAccessException.class, () -> transactionService.getTransactions(userId, walletId, null, 50, null, Sort.Direction.DESC));
     }
 
     @Test
@@ -165,110 +222,130 @@ public class TransactionServiceTest {
         final Long userId = 1L;
         final Long walletId = 1L;
         when(walletService.isUnauthorizedUser(userId, walletId)).thenReturn(false);
-        when(intraTransactionRepository.findByUserId(userId)).thenReturn(List.of());
-        when(interTransactionRepository.findByRecipientId(userId)).thenReturn(List.of());
-        when(interTransactionRepository.findBySenderId(userId)).thenReturn(List.of());
+        when(ledgerEntryRepository.findByWalletId(eq(walletId), any(), any(), any())).thenReturn(Window.from(List.of(), ScrollPosition::offset));
 
-        assertThrows(NoTransactionsFoundException.class, () -> transactionService.getTransactions(userId, walletId, null));
+        assertThrows(NoTransactionsFoundException.class, () -> transactionService.getTransactions(userId, walletId, null, 50, null, Sort.Direction.DESC));
     }
 
     @Test
-    public void testGetTransactionsReturnsListOfTransactionsWhenTransactionsExist() {
+    public void testGetTransactionsReturnsEmptyPageAfterLastCursor() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        Wallet wallet = new Wallet(new User(userId, "username", "password"), Currency.INR);
-        IntraTransaction intraTransaction = new IntraTransaction(100.0, Currency.INR, TransactionType.DEPOSIT, userId);
-        InterTransaction interTransaction = new InterTransaction(100.0, Currency.INR, TransactionType.TRANSFER, userId, 2L);
+        final String after = cursor("2024-01-01T00:00", 5L);
         when(walletService.isUnauthorizedUser(userId, walletId)).thenReturn(false);
-        when(intraTransactionRepository.findByUserId(userId)).thenReturn(List.of(intraTransaction));
-        when(interTransactionRepository.findByRecipientId(userId)).thenReturn(List.of(interTransaction));
-        when(interTransactionRepository.findBySenderId(userId)).thenReturn(List.of());
+        when(ledgerEntryRepository.findByWalletId(eq(walletId), any(), any(), any())).thenReturn(Window.from(List.of(), ScrollPosition::offset));
 
-        List<TransactionResponseDto> transactions = transactionService.getTransactions(userId, walletId, null);
+        TransactionPageDto page = transactionService.getTransactions(userId, walletId, null, 50, after, Sort.Direction.DESC);
 
-        assertEquals(2, transactions.size());
+        assertTrue(page.getTransactions().isEmpty());
+        assertNull(page.getNextCursor());
     }
 
     @Test
-    public void testGetTransactionsReturnsListOfTransactionsWhenDifferentInputs() {
-        final Long userId = 2L;
-        final Long walletId = 2L;
-        final Wallet wallet = new Wallet(new User(userId, "anotherUsername", "password"), Currency.USD);
-        final IntraTransaction intraTransaction = new IntraTransaction(200.0, Currency.USD, TransactionType.WITHDRAWAL, userId);
-        final InterTransaction interTransaction = new InterTransaction(200.0, Currency.USD, TransactionType.TRANSFER, userId, 3L);
+    public void testGetTransactionsReturnsLedgerEntriesOfWallet() {
+        final Long userId = 1L;
+        final Long walletId = 1L;
+        final Wallet wallet = wallet(walletId, Currency.INR);
+        final LedgerEntryView transfer = view(new LedgerEntry(wallet, LedgerEntryType.DEBIT, TransactionType.TRANSFER, 100L, 2L));
+        final LedgerEntryView deposit = view(new LedgerEntry(wallet, LedgerEntryType.CREDIT, TransactionType.DEPOSIT, 500L, null));
         when(walletService.isUnauthorizedUser(userId, walletId)).thenReturn(false);
-        when(intraTransactionRepository.findByUserId(userId)).thenReturn(List.of(intraTransaction));
-        when(interTransactionRepository.findByRecipientId(userId)).thenReturn(List.of(interTransaction));
-        when(interTransactionRepository.findBySenderId(userId)).thenReturn(List.of());
+        when(ledgerEntryRepository.findByWalletId(walletId, ScrollPosition.keyset(), Sort.by(Sort.Direction.DESC, "timestamp", "id"), Limit.of(50)))
+                .thenReturn(Window.from(List.of(transfer, deposit), ScrollPosition::offset));
 
-        List<TransactionResponseDto> transactions = transactionService.getTransactions(userId, walletId, null);
+        TransactionPageDto page = transactionService.getTransactions(userId, walletId, null, 50, null, Sort.Direction.DESC);
 
+        List<TransactionResponseDto> transactions = page.getTransactions();
         assertEquals(2, transactions.size());
+        assertEquals(TransactionType.TRANSFER, transactions.get(0).getTransactionType());
+        assertEquals(walletId, transactions.get(0).getSenderId());
+        assertEquals(2L, transactions.get(0).getRecipientId());
+        assertEquals(walletId, transactions.get(1).getRecipientId());
+        assertNull(transactions.get(1).getSenderId());
+        assertNull(page.getNextCursor());
     }
 
     @Test
-    public void testGetTransactionsByTransactionTypeReturnsListOfDepositTransactionsWhenTransactionTypeIsDeposit() {
+    public void testGetTransactionsByTransactionTypeReadsOnlyThatType() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        final Wallet wallet = new Wallet(new User(userId, "username", "password"), Currency.INR);
-        final IntraTransaction firstIntraTransaction = new IntraTransaction(100.0, Currency.INR, TransactionType.DEPOSIT, userId);
-        final IntraTransaction secondIntraTransaction = new IntraTransaction(200.0, Currency.INR, TransactionType.DEPOSIT, userId);
-        final IntraTransaction thirdIntraTransaction = new IntraTransaction(300.0, Currency.INR, TransactionType.DEPOSIT, userId);
-        final IntraTransaction fourthIntraTransaction = new IntraTransaction(400.0, Currency.INR, TransactionType.WITHDRAWAL, userId);
-        final InterTransaction interTransaction = new InterTransaction(100.0, Currency.INR, TransactionType.TRANSFER, userId, 2L);
+        final Wallet wallet = wallet(walletId, Currency.INR);
+        final LedgerEntryView withdrawal = view(new LedgerEntry(wallet, LedgerEntryType.DEBIT, TransactionType.WITHDRAWAL, 400L, null));
         when(walletService.isUnauthorizedUser(userId, walletId)).thenReturn(false);
-        when(intraTransactionRepository.findByUserIdAndTransactionType(userId, TransactionType.DEPOSIT)).thenReturn(List.of(firstIntraTransaction, secondIntraTransaction, thirdIntraTransaction));
+        when(ledgerEntryRepository.findByWalletIdAndTransactionType(eq(walletId), eq(TransactionType.WITHDRAWAL), any(), any(), any()))
+                .thenReturn(Window.from(List.of(withdrawal), ScrollPosition::offset));
 
-        List<TransactionResponseDto> transactions = transactionService.getTransactions(userId, walletId, TransactionType.DEPOSIT);
+        TransactionPageDto page = transactionService.getTransactions(userId, walletId, TransactionType.WITHDRAWAL, 50, null, Sort.Direction.DESC);
 
-        assertEquals(3, transactions.size());
-        assertEquals(TransactionType.DEPOSIT, transactions.get(0).getTransactionType());
-        assertEquals(TransactionType.DEPOSIT, transactions.get(1).getTransactionType());
-        assertEquals(TransactionType.DEPOSIT, transactions.get(2).getTransactionType());
+        assertEquals(1, page.getTransactions().size());
+        assertEquals(TransactionType.WITHDRAWAL, page.getTransactions().get(0).getTransactionType());
+        assertEquals(400L, page.getTransactions().get(0).getAmount());
+        verify(ledgerEntryRepository, never()).findByWalletId(any(), any(), any(), any());
     }
 
     @Test
-    public void testGetTransactionsByTransactionTypeReturnsListOfTransactionsWhenTransactionTypeIsWithdrawal() {
+    public void testGetTransactionsReturnsCursorOfLastEntryWhenMorePagesExist() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        final Wallet wallet = new Wallet(new User(userId, "username", "password"), Currency.INR);
-        final IntraTransaction firstIntraTransaction = new IntraTransaction(100.0, Currency.INR, TransactionType.DEPOSIT, userId);
-        final IntraTransaction secondIntraTransaction = new IntraTransaction(200.0, Currency.INR, TransactionType.DEPOSIT, userId);
-        final IntraTransaction thirdIntraTransaction = new IntraTransaction(300.0, Currency.INR, TransactionType.DEPOSIT, userId);
-        final IntraTransaction fourthIntraTransaction = new IntraTransaction(400.0, Currency.INR, TransactionType.WITHDRAWAL, userId);
-        final InterTransaction interTransaction = new InterTransaction(100.0, Currency.INR, TransactionType.TRANSFER, userId, 2L);
+        final LedgerEntryView newer = entry(wallet(walletId, Currency.INR), 8L, LocalDateTime.parse("2024-01-02T10:15:30"));
+        final LedgerEntryView older = entry(wallet(walletId, Currency.INR), 7L, LocalDateTime.parse("2024-01-02T10:15:29"));
         when(walletService.isUnauthorizedUser(userId, walletId)).thenReturn(false);
-        when(intraTransactionRepository.findByUserIdAndTransactionType(userId, TransactionType.WITHDRAWAL)).thenReturn(List.of(fourthIntraTransaction));
+        when(ledgerEntryRepository.findByWalletId(eq(walletId), any(), any(), eq(Limit.of(2))))
+                .thenReturn(Window.from(List.of(newer, older), ScrollPosition::offset, true));
 
-        List<TransactionResponseDto> transactions = transactionService.getTransactions(userId, walletId, TransactionType.WITHDRAWAL);
+        TransactionPageDto page = transactionService.getTransactions(userId, walletId, null, 2, null, Sort.Direction.DESC);
 
-        assertEquals(1, transactions.size());
-        assertEquals(TransactionType.WITHDRAWAL, transactions.get(0).getTransactionType());
+        assertEquals(cursor("2024-01-02T10:15:29", 7L), page.getNextCursor());
     }
 
     @Test
-    public void testGetTransactionsByTransactionTypeReturnsListOfTransactionsWhenTransactionTypeIsTransfer() {
+    public void testGetTransactionsResumesFromCursorPosition() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        final Wallet wallet = new Wallet(new User(userId, "username", "password"), Currency.INR);
-        final IntraTransaction firstIntraTransaction = new IntraTransaction(100.0, Currency.INR, TransactionType.DEPOSIT, userId);
-        final IntraTransaction secondIntraTransaction = new IntraTransaction(200.0, Currency.INR, TransactionType.DEPOSIT, userId);
-        final IntraTransaction thirdIntraTransaction = new IntraTransaction(300.0, Currency.INR, TransactionType.DEPOSIT, userId);
-        final IntraTransaction fourthIntraTransaction = new IntraTransaction(400.0, Currency.INR, TransactionType.WITHDRAWAL, userId);
-        final InterTransaction firstInterTransaction = new InterTransaction(100.0, Currency.INR, TransactionType.TRANSFER, 1L, 2L);
-        final InterTransaction secondInterTransaction = new InterTransaction(100.0, Currency.INR, TransactionType.TRANSFER, 1L, 2L);
-        final InterTransaction thirdInterTransaction = new InterTransaction(100.0, Currency.INR, TransactionType.TRANSFER, 2L, 1L);
-        final InterTransaction fourthInterTransaction = new InterTransaction(100.0, Currency.INR, TransactionType.TRANSFER, 2L, 1L);
         when(walletService.isUnauthorizedUser(userId, walletId)).thenReturn(false);
-        when(interTransactionRepository.findByRecipientId(userId)).thenReturn(List.of(thirdInterTransaction, fourthInterTransaction));
-        when(interTransactionRepository.findBySenderId(userId)).thenReturn(List.of(firstInterTransaction, secondInterTransaction));
+        when(ledgerEntryRepository.findByWalletId(eq(walletId), any(), any(), any())).thenReturn(Window.from(List.of(), ScrollPosition::offset));
 
-        List<TransactionResponseDto> transactions = transactionService.getTransactions(userId, walletId, TransactionType.TRANSFER);
+        transactionService.getTransactions(userId, walletId, null, 10, cursor("2024-01-02T10:15:29", 7L), Sort.Direction.ASC);
 
-        assertEquals(4, transactions.size());
-        assertEquals(TransactionType.TRANSFER, transactions.get(0).getTransactionType());
-        assertEquals(TransactionType.TRANSFER, transactions.get(1).getTransactionType());
-        assertEquals(TransactionType.TRANSFER, transactions.get(2).getTransactionType());
-        assertEquals(TransactionType.TRANSFER, transactions.get(3).getTransactionType());
+        verify(ledgerEntryRepository).findByWalletId(walletId,
+                ScrollPosition.forward(Map.of("timestamp", LocalDateTime.parse("2024-01-02T10:15:29"), "id", 7L)),
+                Sort.by(Sort.Direction.ASC, "timestamp", "id"), Limit.of(10));
+    }
+
+    @Test
+    public void testGetTransactionsThrowsInvalidPageRequestExceptionForMalformedCursor() {
+        when(walletService.isUnauthorizedUser(1L, 1L)).thenReturn(false);
+
+        assertThrows(InvalidPageRequestException.class, () -> transactionService.getTransactions(1L, 1L, null, 10, "not-a-cursor", Sort.Direction.DESC));
+        verifyNoInteractions(ledgerEntryRepository);
+    }
+
+    @Test
+    public void testGetTransactionsThrowsInvalidPageRequestExceptionForLimitOutOfRange() {
+        when(walletService.isUnauthorizedUser(1L, 1L)).thenReturn(false);
+
+        assertThrows(InvalidPageRequestException.class, () -> transactionService.getTransactions(1L, 1L, null, 0, null, Sort.Direction.DESC));
+        assertThrows(InvalidPageRequestException.class, () -> transactionService.getTransactions(1L, 1L, null, TransactionService.MAX_PAGE_SIZE + 1, null, Sort.Direction.DESC));
+        verifyNoInteractions(ledgerEntryRepository);
+    }
+
+    private static String cursor(String timestamp, Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((timestamp + "," + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static LedgerEntryView entry(Wallet wallet, Long id, LocalDateTime timestamp) {
+        LedgerEntry entry = new LedgerEntry(wallet, LedgerEntryType.CREDIT, TransactionType.DEPOSIT, 100L, null);
+        ReflectionTestUtils.setField(entry, "id", id);
+        ReflectionTestUtils.setField(entry, "timestamp", timestamp);
+        return view(entry);
+    }
+
+    private static LedgerEntryView view(LedgerEntry entry) {
+        return PROJECTION_FACTORY.createProjection(LedgerEntryView.class, entry);
+    }
+
+    private static Wallet wallet(Long id, Currency currency) {
+        Wallet wallet = new Wallet(new User(1L, "username", "password"), currency);
+        ReflectionTestUtils.setField(wallet, "id", id);
+        return wallet;
     }
-}
\ No newline at end of file
+}
@@ -9,6 +9,7 @@ import com.swiggy.walletapp.repository.UserRepository;
 import com.swiggy.walletapp.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -57,4 +58,15 @@ public class UserServiceTest {
         verify(userRepository, never()).save(user);
         verify(walletRepository, never()).save(any(Wallet.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRegisterUserThrowsExceptionWhenConcurrentRegistrationTakesUsername() {
+        final UserDto userDto = new UserDto("username", "password", Currency.INR);
+        when(userRepository.findByUsername("username")).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("user_username_uk"));
+
+        assertThrows(UserAlreadyExistsException.class, () -> userService.register(userDto));
+
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
+}
@@ -0,0 +1,125 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.dto.WalletResponseDto;
+import com.swiggy.walletapp.enums.Currency;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WalletBalanceCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private WalletBalanceCache walletBalanceCache;
+    private final AtomicLong balance = new AtomicLong(100L);
+    private final AtomicLong loads = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        WalletProperties walletProperties = new WalletProperties();
+        walletProperties.getCache().setEnabled(true);
+        walletBalanceCache = new WalletBalanceCache(walletProperties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void getLoadsOncePerUserAndRecordsHitsAndMisses() {
+        assertEquals(100L, get(1L));
+        balance.set(200L);
+        assertEquals(100L, get(1L));
+
+        assertEquals(1L, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", WalletBalanceCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", WalletBalanceCache.CACHE_NAME).tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void evictAfterCommitEvictsImmediatelyOutsideATransaction() {
+        get(1L);
+        balance.set(200L);
+
+        walletBalanceCache.evictAfterCommit(1L);
+
+        assertEquals(200L, get(1L));
+    }
+
+    @Test
+    void evictAfterCommitWaitsForTheCommit() {
+        get(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        balance.set(200L);
+
+        walletBalanceCache.evictAfterCommit(1L);
+        assertEquals(100L, get(1L));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(200L, get(1L));
+    }
+
+    @Test
+    void evictAfterCommitLeavesTheCacheAloneOnRollback() {
+        get(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        walletBalanceCache.evictAfterCommit(1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        get(1L);
+        assertEquals(1L, loads.get());
+    }
+
+    @Test
+    void evictionDuringALoadKeepsThatListingOutOfTheCache() {
+        walletBalanceCache.get(1L, id -> {
+            walletBalanceCache.evictAfterCommit(1L);
+            return List.of(new WalletResponseDto(1L, balance.get(), Currency.INR));
+        });
+        balance.set(200L);
+
+        assertEquals(200L, get(1L));
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        assertThrows(IllegalStateException.class, () -> walletBalanceCache.get(1L, id -> {
+            throw new IllegalStateException("database unavailable");
+        }));
+
+        assertEquals(100L, get(1L));
+    }
+
+    @Test
+    void getAlwaysLoadsWhenCacheIsDisabled() {
+        WalletProperties walletProperties = new WalletProperties();
+        walletProperties.getCache().setEnabled(false);
+        walletBalanceCache = new WalletBalanceCache(walletProperties, meterRegistry);
+
+        get(1L);
+        get(1L);
+
+        assertEquals(2L, loads.get());
+    }
+
+    private long get(Long userId) {
+        return walletBalanceCache.get(userId, id -> {
+            loads.incrementAndGet();
+            return List.of(new WalletResponseDto(1L, balance.get(), Currency.INR));
+        }).get(0).getBalance();
+    }
+}
@@ -0,0 +1,212 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.dto.TransactionDto;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.exception.InsufficientFundsException;
+import com.swiggy.walletapp.exception.TransactionOutcomeUnknownException;
+import com.swiggy.walletapp.exception.WalletBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class WalletGroupCommitterTest {
+
+    private static final TransactionDto DEPOSIT = new TransactionDto(TransactionType.DEPOSIT, 100L, Currency.INR);
+
+    private BulkTransactionService bulkTransactionService;
+    private SimpleMeterRegistry meterRegistry;
+    private WalletProperties walletProperties;
+    private WalletGroupCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        bulkTransactionService = mock(BulkTransactionService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        walletProperties = new WalletProperties();
+        walletProperties.getGroupCommit().setEnabled(true);
+        walletProperties.getGroupCommit().setMaxBatchSize(4);
+        walletProperties.getGroupCommit().setMaxWait(Duration.ofSeconds(1));
+        when(bulkTransactionService.prepare(anyLong(), anyLong(), eq(DEPOSIT))).thenAnswer(invocation ->
+                prepared(invocation.getArgument(1)));
+        when(bulkTransactionService.apply(anyList())).thenAnswer(invocation -> {
+            List<BulkTransactionService.PreparedTransaction> transactions = invocation.getArgument(0);
+            return transactions.stream().map(transaction -> new BulkTransactionService.Outcome(transaction.creditAmount(), null)).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (committer != null) {
+            committer.close();
+        }
+    }
+
+    @Test
+    void commitsConcurrentTransactionsAsOneGroup() throws Exception {
+        committer = new WalletGroupCommitter(bulkTransactionService, walletProperties, meterRegistry);
+
+        List<CompletableFuture<Void>> commits = IntStream.rangeClosed(1, 4)
+                .mapToObj(walletId -> CompletableFuture.runAsync(() -> committer.commit(1L, (long) walletId, DEPOSIT)))
+                .toList();
+        CompletableFuture.allOf(commits.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        verify(bulkTransactionService, times(1)).apply(argThat(transactions -> transactions.size() == 4));
+        assertEquals(1, meterRegistry.get("wallet.group-commit.batch.size").summary().count());
+    }
+
+    @Test
+    void commitFlushesPartialGroupAfterMaxWait() {
+        walletProperties.getGroupCommit().setMaxWait(Duration.ofMillis(20));
+        committer = new WalletGroupCommitter(bulkTransactionService, walletProperties, meterRegistry);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> committer.commit(1L, 1L, DEPOSIT));
+
+        verify(bulkTransactionService).apply(argThat(transactions -> transactions.size() == 1));
+    }
+
+    @Test
+    void commitRethrowsTheFailureOfItsOwnTransaction() {
+        walletProperties.getGroupCommit().setMaxWait(Duration.ofMillis(20));
+        InsufficientFundsException failure = new InsufficientFundsException("Insufficient funds", HttpStatus.BAD_REQUEST);
+        when(bulkTransactionService.apply(anyList())).thenReturn(List.of(BulkTransactionService.Outcome.failed(failure)));
+        committer = new WalletGroupCommitter(bulkTransactionService, walletProperties, meterRegistry);
+
+        InsufficientFundsException e = assertThrows(InsufficientFundsException.class, () -> committer.commit(1L, 1L, DEPOSIT));
+
+        assertSame(failure, e);
+    }
+
+    @Test
+    void commitFailsEveryTransactionOfAGroupThatCannotCommit() throws Exception {
+        CannotAcquireLockException conflict = new CannotAcquireLockException("lock timeout");
+        when(bulkTransactionService.apply(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).stream()
+                .map(transaction -> BulkTransactionService.Outcome.failed(conflict)).toList());
+        committer = new WalletGroupCommitter(bulkTransactionService, walletProperties, meterRegistry);
+
+        List<CompletableFuture<Void>> commits = IntStream.rangeClosed(1, 4)
+                .mapToObj(walletId -> CompletableFuture.runAsync(() -> committer.commit(1L, (long) walletId, DEPOSIT)))
+                .toList();
+
+        for (CompletableFuture<Void> commit : commits) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> commit.get(5, TimeUnit.SECONDS));
+            assertSame(conflict, e.getCause());
+        }
+        assertEquals(1, meterRegistry.get("wallet.group-commit.batch.latency").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void commitRejectsTransactionsWhenTheQueueIsFull() throws Exception {
+        walletProperties.getGroupCommit().setMaxBatchSize(1);
+        walletProperties.getGroupCommit().setQueueCapacity(1);
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bulkTransactionService.apply(anyList())).thenAnswer(invocation -> {
+            applying.countDown();
+            release.await();
+            return List.of(new BulkTransactionService.Outcome(100L, null));
+        });
+        committer = new WalletGroupCommitter(bulkTransactionService, walletProperties, meterRegistry);
+
+        CompletableFuture<Void> inFlight = CompletableFuture.runAsync(() -> committer.commit(1L, 1L, DEPOSIT));
+        assertTrue(applying.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> committer.commit(1L, 2L, DEPOSIT));
+        while (meterRegistry.get("wallet.group-commit.queue.size").gauge().value() < 1) {
+            Thread.sleep(1);
+        }
+
+        assertThrows(WalletBusyException.class, () -> committer.commit(1L, 3L, DEPOSIT));
+
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void commitWithdrawsATransactionStillQueuedAtTheTimeout() throws Exception {
+        walletProperties.getGroupCommit().setMaxBatchSize(1);
+        walletProperties.getGroupCommit().setTimeout(Duration.ofMillis(50));
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bulkTransactionService.apply(anyList())).thenAnswer(invocation -> {
+            applying.countDown();
+            release.await();
+            return List.of(new BulkTransactionService.Outcome(100L, null));
+        });
+        committer = new WalletGroupCommitter(bulkTransactionService, walletProperties, meterRegistry);
+
+        CompletableFuture<Void> inFlight = CompletableFuture.runAsync(() -> committer.commit(1L, 1L, DEPOSIT));
+        assertTrue(applying.await(5, TimeUnit.SECONDS));
+
+        assertThrows(WalletBusyException.class, () -> committer.commit(1L, 2L, DEPOSIT));
+
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+        verify(bulkTransactionService, times(1)).apply(anyList());
+    }
+
+    @Test
+    void commitReportsAnUnknownOutcomeWhenTheWriterNeverFinishesItsTransaction() throws Exception {
+        walletProperties.getGroupCommit().setMaxWait(Duration.ofMillis(20));
+        walletProperties.getGroupCommit().setTimeout(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        when(bulkTransactionService.apply(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return List.of(new BulkTransactionService.Outcome(100L, null));
+        });
+        committer = new WalletGroupCommitter(bulkTransactionService, walletProperties, meterRegistry);
+
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                    assertThrows(TransactionOutcomeUnknownException.class, () -> committer.commit(1L, 1L, DEPOSIT)));
+            verify(bulkTransactionService, times(1)).apply(anyList());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void writerThatDiesFailsItsGroupAndRejectsLaterCommits() {
+        walletProperties.getGroupCommit().setMaxWait(Duration.ofMillis(20));
+        walletProperties.getGroupCommit().setTimeout(Duration.ofMillis(200));
+        when(bulkTransactionService.apply(anyList())).thenThrow(new StackOverflowError("writer crashed"));
+        committer = new WalletGroupCommitter(bulkTransactionService, walletProperties, meterRegistry);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(WalletBusyException.class, () -> committer.commit(1L, 1L, DEPOSIT));
+            assertThrows(WalletBusyException.class, () -> committer.commit(1L, 2L, DEPOSIT));
+        });
+        verify(bulkTransactionService, times(1)).apply(anyList());
+    }
+
+    @Test
+    void disabledCommitterStartsNoWriter() {
+        walletProperties.getGroupCommit().setEnabled(false);
+        committer = new WalletGroupCommitter(bulkTransactionService, walletProperties, meterRegistry);
+
+        assertFalse(committer.isEnabled());
+        assertTrue(Thread.getAllStackTraces().keySet().stream().noneMatch(thread -> thread.getName().equals("wallet-group-commit")));
+    }
+
+    private static BulkTransactionService.PreparedTransaction prepared(Long walletId) {
+        return new BulkTransactionService.PreparedTransaction(0, TransactionType.DEPOSIT, 1L, null, 0, walletId, 100L, 1L);
+    }
+}
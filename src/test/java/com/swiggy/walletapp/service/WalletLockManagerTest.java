@@ -0,0 +1,138 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.exception.WalletBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WalletLockManagerTest {
+
+    private WalletProperties walletProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        walletProperties = new WalletProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void withLocksSerializesWritersToTheSameWallet() throws Exception {
+        WalletLockManager walletLockManager = new WalletLockManager(walletProperties, meterRegistry);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+
+        List<Future<Object>> writers = executor.invokeAll(Collections.nCopies(8, () -> walletLockManager.withLocks(List.of(42L), () -> {
+            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+            sleep(5);
+            inside.decrementAndGet();
+            return null;
+        })));
+        for (Future<Object> writer : writers) {
+            writer.get();
+        }
+
+        assertEquals(1, maxInside.get());
+        int stripe = walletLockManager.stripeOf(42L);
+        assertEquals(8, meterRegistry.get("wallet.lock.wait").tag("stripe", String.valueOf(stripe)).timer().count());
+    }
+
+    @Test
+    void withLocksDoesNotDeadlockWhenWalletsAreRequestedInOppositeOrders() throws Exception {
+        WalletLockManager walletLockManager = new WalletLockManager(walletProperties, meterRegistry);
+        CountDownLatch start = new CountDownLatch(1);
+
+        Future<?> forward = executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 1000; i++) {
+                walletLockManager.withLocks(List.of(1L, 2L), () -> null);
+            }
+            return null;
+        });
+        Future<?> backward = executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 1000; i++) {
+                walletLockManager.withLocks(List.of(2L, 1L), () -> null);
+            }
+            return null;
+        });
+        start.countDown();
+
+        forward.get(10, TimeUnit.SECONDS);
+        backward.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void withLocksThrowsWalletBusyExceptionWhenTheStripeCannotBeAcquiredInTime() throws Exception {
+        walletProperties.getLock().setAcquireTimeout(Duration.ofMillis(20));
+        WalletLockManager walletLockManager = new WalletLockManager(walletProperties, meterRegistry);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> walletLockManager.withLocks(List.of(7L), () -> {
+            held.countDown();
+            await(release);
+            return null;
+        }));
+        held.await();
+
+        assertThrows(WalletBusyException.class, () -> walletLockManager.withLocks(List.of(7L), () -> null));
+
+        release.countDown();
+        holder.get();
+    }
+
+    @Test
+    void withLocksRunsTheActionDirectlyWhenDisabled() throws Exception {
+        walletProperties.getLock().setEnabled(false);
+        WalletLockManager walletLockManager = new WalletLockManager(walletProperties, meterRegistry);
+        CountDownLatch bothInside = new CountDownLatch(2);
+
+        List<Future<Boolean>> writers = executor.invokeAll(Collections.nCopies(2, () -> walletLockManager.withLocks(List.of(42L), () -> {
+            bothInside.countDown();
+            return await(bothInside);
+        })));
+
+        for (Future<Boolean> writer : writers) {
+            assertTrue(writer.get());
+        }
+        assertTrue(meterRegistry.find("wallet.lock.wait").timers().isEmpty());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.exception.InsufficientFundsException;
+import com.swiggy.walletapp.exception.WalletBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WalletOperationRetryTest {
+
+    private WalletProperties walletProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private WalletOperationRetry walletOperationRetry;
+
+    @BeforeEach
+    void setUp() {
+        walletProperties = new WalletProperties();
+        walletProperties.getRetry().setMaxAttempts(3);
+        walletProperties.getRetry().setInitialBackoff(Duration.ofMillis(1));
+        walletProperties.getRetry().setMaxBackoff(Duration.ofMillis(2));
+        meterRegistry = new SimpleMeterRegistry();
+        walletOperationRetry = new WalletOperationRetry(walletProperties, meterRegistry);
+    }
+
+    @Test
+    void executeRetriesOptimisticLockFailuresUntilTheOperationSucceeds() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = walletOperationRetry.execute(1L, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Wallet.class, 7L);
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, meterRegistry.get("wallet.concurrency.conflicts").tag("wallet", "7").counter().count());
+    }
+
+    @Test
+    void executeThrowsWalletBusyExceptionOnceAttemptsAreExhausted() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(WalletBusyException.class, () -> walletOperationRetry.execute(4L, () -> {
+            attempts.incrementAndGet();
+            throw new CannotAcquireLockException("lock timeout");
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(3.0, meterRegistry.get("wallet.concurrency.conflicts").tag("wallet", "4").counter().count());
+        assertEquals(1.0, meterRegistry.get("wallet.concurrency.retries.exhausted").tag("wallet", "4").counter().count());
+    }
+
+    @Test
+    void executeDoesNotRetryBusinessFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(InsufficientFundsException.class, () -> walletOperationRetry.execute(1L, () -> {
+            attempts.incrementAndGet();
+            throw new InsufficientFundsException("Insufficient funds", HttpStatus.BAD_REQUEST);
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void backoffGrowsExponentiallyWithinJitterBoundsAndIsCapped() {
+        walletProperties.getRetry().setInitialBackoff(Duration.ofMillis(10));
+        walletProperties.getRetry().setMaxBackoff(Duration.ofMillis(200));
+
+        for (int i = 0; i < 100; i++) {
+            Duration second = WalletOperationRetry.backoff(walletProperties.getRetry(), 2);
+            Duration tenth = WalletOperationRetry.backoff(walletProperties.getRetry(), 10);
+
+            assertTrue(second.compareTo(Duration.ofMillis(10)) >= 0 && second.compareTo(Duration.ofMillis(20)) <= 0);
+            assertTrue(tenth.compareTo(Duration.ofMillis(100)) >= 0 && tenth.compareTo(Duration.ofMillis(200)) <= 0);
+        }
+    }
+}
@@ -1,21 +1,35 @@
 package com.swiggy.walletapp.service;
 
-import com.swiggy.walletapp.dto.MoneyDto;
 import com.swiggy.walletapp.dto.WalletRequestDto;
 import com.swiggy.walletapp.dto.WalletResponseDto;
+import com.swiggy.walletapp.entity.LedgerEntry;
 import com.swiggy.walletapp.entity.User;
 import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.entity.WalletOwnerView;
 import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.LedgerEntryType;
+import com.swiggy.walletapp.enums.TransactionType;
+import com.swiggy.walletapp.exception.InsufficientFundsException;
+import com.swiggy.walletapp.exception.InvalidAmountException;
 import com.swiggy.walletapp.exception.UnauthorizedAccessException;
 import com.swiggy.walletapp.exception.UserNotFoundException;
 import com.swiggy.walletapp.exception.WalletNotFoundException;
+import com.swiggy.walletapp.repository.LedgerEntryRepository;
 import com.swiggy.walletapp.repository.UserRepository;
 import com.swiggy.walletapp.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,20 +40,29 @@ public class WalletServiceTest {
     private WalletRepository walletRepository;
     private WalletService walletService;
     private MoneyConversionService moneyConversionService;
+    private WalletShardingService walletShardingService;
+    private LedgerEntryRepository ledgerEntryRepository;
+    private WalletBalanceCache walletBalanceCache;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
         walletRepository = mock(WalletRepository.class);
         moneyConversionService = mock(MoneyConversionService.class);
-        walletService = new WalletService(userRepository, walletRepository, moneyConversionService);
+        walletShardingService = mock(WalletShardingService.class);
+        ledgerEntryRepository = mock(LedgerEntryRepository.class);
+        walletBalanceCache = mock(WalletBalanceCache.class);
+        when(walletBalanceCache.get(any(), any())).thenAnswer(invocation ->
+                invocation.<Function<Long, List<WalletResponseDto>>>getArgument(1).apply(invocation.getArgument(0)));
+        walletService = new WalletService(userRepository, walletRepository, moneyConversionService, walletShardingService, ledgerEntryRepository,
+                new WalletOwnershipMemo(), walletBalanceCache);
     }
 
     @Test
     public void testIsUnauthorizedUserThrowsWalletNotFoundExceptionWhenWalletNotFound() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        when(walletRepository.findById(walletId)).thenReturn(Optional.empty());
+        when(walletRepository.existsById(walletId)).thenReturn(false);
 
         assertThrows(WalletNotFoundException.class, () -> walletService.isUnauthorizedUser(userId, walletId));
     }
@@ -48,9 +71,8 @@ public class WalletServiceTest {
     public void testIsUnauthorizedUserThrowsUserNotFoundExceptionWhenUserNotFound() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        final Wallet wallet = new Wallet();
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(walletRepository.existsById(walletId)).thenReturn(true);
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> walletService.isUnauthorizedUser(userId, walletId));
     }
@@ -59,32 +81,46 @@ public class WalletServiceTest {
     public void testIsUnauthorizedUserReturnsTrueWhenUnauthorizedUser() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        final User user = new User("username", "password");
-        final User otherUser = new User("otherUsername", "password");
-        final Wallet wallet = new Wallet(otherUser, Currency.INR);
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(walletRepository.existsByIdAndUserId(walletId, userId)).thenReturn(false);
+        when(walletRepository.existsById(walletId)).thenReturn(true);
+        when(userRepository.existsById(userId)).thenReturn(true);
 
         assertTrue(walletService.isUnauthorizedUser(userId, walletId));
     }
 
     @Test
-    public void testIsUnauthorizedUserReturnsFalseWhenAuthorizedUser() {
+    public void testIsUnauthorizedUserReturnsFalseWhenAuthorizedUserInOneQuery() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        final User user = new User("username", "password");
-        final Wallet wallet = new Wallet(user, Currency.INR);
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(walletRepository.existsByIdAndUserId(walletId, userId)).thenReturn(true);
 
         assertFalse(walletService.isUnauthorizedUser(userId, walletId));
+        verify(walletRepository, never()).existsById(any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testIsUnauthorizedUserRemembersOwnershipForTheRestOfTheRequest() {
+        final Long userId = 1L;
+        final Long walletId = 1L;
+        when(walletRepository.existsByIdAndUserId(walletId, userId)).thenReturn(true);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            assertFalse(walletService.isUnauthorizedUser(userId, walletId));
+            assertFalse(walletService.isUnauthorizedUser(userId, walletId));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        verify(walletRepository, times(1)).existsByIdAndUserId(walletId, userId);
     }
 
     @Test
     public void testFetchUserWalletThrowsWalletNotFoundExceptionWhenWalletNotFound() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        when(walletRepository.findById(walletId)).thenReturn(Optional.empty());
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.empty());
+        when(walletRepository.existsById(walletId)).thenReturn(false);
 
         assertThrows(WalletNotFoundException.class, () -> walletService.fetchUserWallet(userId, walletId));
     }
@@ -93,8 +129,9 @@ public class WalletServiceTest {
     public void testFetchUserWalletThrowsUserNotFoundExceptionWhenUserNotFound() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(new Wallet()));
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.empty());
+        when(walletRepository.existsById(walletId)).thenReturn(true);
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> walletService.fetchUserWallet(userId, walletId));
     }
@@ -103,11 +140,9 @@ public class WalletServiceTest {
     public void testFetchUserWalletThrowsUnauthorizedAccessExceptionWhenUnauthorizedUser() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        final User user = new User("username", "password");
-        final User otherUser = new User("otherUsername", "password");
-        final Wallet wallet = new Wallet(otherUser, Currency.INR);
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.empty());
+        when(walletRepository.existsById(walletId)).thenReturn(true);
+        when(userRepository.existsById(userId)).thenReturn(true);
 
         assertThrows(UnauthorizedAccessException.class, () -> walletService.fetchUserWallet(userId, walletId));
     }
@@ -116,14 +151,15 @@ public class WalletServiceTest {
     public void testFetchUserWalletReturnsWalletWhenAuthorizedUser() {
         final Long userId = 1L;
         final Long walletId = 1L;
-        final User user = new User("username", "password");
+        final User user = new User(userId, "username", "password");
         final Wallet wallet = new Wallet(user, Currency.INR);
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.of(wallet));
 
         Wallet result = walletService.fetchUserWallet(userId, walletId);
 
         assertEquals(wallet, result);
+        verify(walletRepository, never()).findById(any());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -131,17 +167,18 @@ public class WalletServiceTest {
         final Long userId = 1L;
         final Long walletId = 1L;
         final User user = new User("username", "password");
-        final Wallet wallet = new Wallet(1000.0, user, Currency.INR);
-        final double amount = 100.0;
-        final MoneyDto money = new MoneyDto("INR", amount);
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(moneyConversionService.convertMoney(money, "INR")).thenReturn(money);
+        final Wallet wallet = new Wallet(1000L, user, Currency.INR);
+        final long amount = 100L;
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.of(wallet));
+        when(moneyConversionService.convert(Currency.INR, Currency.INR, amount)).thenReturn(amount);
+
+        when(walletRepository.credit(walletId, amount)).thenReturn(1);
 
         walletService.deposit(userId, walletId, Currency.INR, amount);
 
-        assertTrue(wallet.checkBalance(1100.0));
-        verify(walletRepository).save(wallet);
+        verify(walletRepository).credit(walletId, 100L);
+        verify(walletRepository, never()).save(any());
+        verify(walletBalanceCache).evictAfterCommit(userId);
     }
 
     @Test
@@ -149,18 +186,38 @@ public class WalletServiceTest {
         final Long userId = 1L;
         final Long walletId = 1L;
         final User user = new User("username", "password");
-        final Wallet wallet = new Wallet(1000.0, user, Currency.INR);
-        final double amount = 100.0;
-        final MoneyDto money = new MoneyDto("USD", amount);
-        final MoneyDto convertedMoney = new MoneyDto("INR", 8300.0);
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(moneyConversionService.convertMoney(money, "INR")).thenReturn(convertedMoney);
+        final Wallet wallet = new Wallet(1000L, user, Currency.INR);
+        final long amount = 100L;
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.of(wallet));
+        when(moneyConversionService.convert(Currency.USD, Currency.INR, amount)).thenReturn(8300L);
+
+        when(walletRepository.credit(walletId, 8300L)).thenReturn(1);
 
         walletService.deposit(userId, walletId, Currency.USD, amount);
 
-        assertTrue(wallet.checkBalance(9300.0));
-        verify(walletRepository).save(wallet);
+        verify(walletRepository).credit(walletId, 8300L);
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getEntryType() == LedgerEntryType.CREDIT
+                && entry.getTransactionType() == TransactionType.DEPOSIT && entry.getAmount() == 8300L
+                && entry.getCurrency() == Currency.INR && entry.getCounterpartyWalletId() == null));
+    }
+
+    @Test
+    public void testDepositRecordsConvertedAmountWhenDepositingUSDToINR() {
+        final Long userId = 1L;
+        final Long walletId = 1L;
+        final User user = new User("username", "password");
+        final Wallet wallet = new Wallet(1000L, user, Currency.INR);
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.of(wallet));
+        when(moneyConversionService.convert(Currency.USD, Currency.INR, 2L)).thenReturn(166L);
+        when(walletRepository.credit(walletId, 166L)).thenReturn(1);
+
+        walletService.deposit(userId, walletId, Currency.USD, 2L);
+
+        ArgumentCaptor<LedgerEntry> entry = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerEntryRepository).save(entry.capture());
+        assertEquals(166L, entry.getValue().getAmount());
+        assertEquals(Currency.INR, entry.getValue().getCurrency());
+        verify(moneyConversionService, times(1)).convert(any(), any(), anyLong());
     }
 
     @Test
@@ -168,17 +225,17 @@ public class WalletServiceTest {
         final Long userId = 1L;
         final Long walletId = 1L;
         final User user = new User("username", "password");
-        final Wallet wallet = new Wallet(1000.0, user, Currency.INR);
-        final double amount = 100.0;
-        final MoneyDto money = new MoneyDto("INR", amount);
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(moneyConversionService.convertMoney(money, "INR")).thenReturn(money);
+        final Wallet wallet = new Wallet(1000L, user, Currency.INR);
+        final long amount = 100L;
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.of(wallet));
+        when(moneyConversionService.convert(Currency.INR, Currency.INR, amount)).thenReturn(amount);
+
+        when(walletRepository.debit(walletId, amount)).thenReturn(1);
 
         walletService.withdraw(userId, walletId, Currency.INR, amount);
 
-        assertTrue(wallet.checkBalance(900.0));
-        verify(walletRepository).save(wallet);
+        verify(walletRepository).debit(walletId, 100L);
+        verify(walletRepository, never()).save(any());
     }
 
     @Test
@@ -186,18 +243,38 @@ public class WalletServiceTest {
         final Long userId = 1L;
         final Long walletId = 1L;
         final User user = new User("username", "password");
-        final Wallet wallet = new Wallet(1000.0, user, Currency.INR);
-        final double amount = 1.0;
-        final MoneyDto money = new MoneyDto("USD", amount);
-        final MoneyDto convertedMoney = new MoneyDto("INR", 83.0);
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(moneyConversionService.convertMoney(money, "INR")).thenReturn(convertedMoney);
+        final Wallet wallet = new Wallet(1000L, user, Currency.INR);
+        final long amount = 1L;
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.of(wallet));
+        when(moneyConversionService.convert(Currency.USD, Currency.INR, amount)).thenReturn(83L);
+
+        when(walletRepository.debit(walletId, 83L)).thenReturn(1);
 
         walletService.withdraw(userId, walletId, Currency.USD, amount);
 
-        assertTrue(wallet.checkBalance(917.0));
-        verify(walletRepository).save(wallet);
+        verify(walletRepository).debit(walletId, 83L);
+    }
+
+    @Test
+    public void testWithdrawThrowsInsufficientFundsExceptionWhenGuardedDebitUpdatesNoRow() {
+        final Long userId = 1L;
+        final Long walletId = 1L;
+        final User user = new User("username", "password");
+        final Wallet wallet = new Wallet(50L, user, Currency.INR);
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.of(wallet));
+        when(moneyConversionService.convert(Currency.INR, Currency.INR, 100L)).thenReturn(100L);
+        when(walletRepository.debit(walletId, 100L)).thenReturn(0);
+
+        assertThrows(InsufficientFundsException.class, () -> walletService.withdraw(userId, walletId, Currency.INR, 100L));
+        verifyNoInteractions(ledgerEntryRepository);
+        verify(walletBalanceCache, never()).evictAfterCommit(any());
+    }
+
+    @Test
+    public void testDepositThrowsInvalidAmountExceptionBeforeConvertingNonPositiveAmount() {
+        assertThrows(InvalidAmountException.class, () -> walletService.deposit(1L, 1L, Currency.USD, -5L));
+
+        verifyNoInteractions(moneyConversionService, walletRepository);
     }
 
     @Test
@@ -206,15 +283,13 @@ public class WalletServiceTest {
         final Long senderWalletId = 1L;
         final Long recipientWalletId = 2L;
         final User sender = new User(userId, "senderUsername", "password");
-        final Wallet senderWallet = new Wallet(1000.0, sender, Currency.INR);
-        final double amount = 100.0;
-        final MoneyDto money = new MoneyDto("INR", amount);
-        when(walletRepository.findById(senderWalletId)).thenReturn(Optional.of(senderWallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(sender));
-        when(walletRepository.findById(recipientWalletId)).thenReturn(Optional.empty());
-        when(moneyConversionService.convertMoney(money, "INR")).thenReturn(money);
+        final Wallet senderWallet = wallet(senderWalletId, 1000L, sender, Currency.INR);
+        final long amount = 100L;
+        when(walletRepository.findOwnersByIdIn(List.of(senderWalletId, recipientWalletId))).thenReturn(owners(senderWallet));
+        when(walletRepository.findAllByIdForUpdate(List.of(senderWalletId, recipientWalletId))).thenReturn(List.of(senderWallet));
 
-        assertThrows(WalletNotFoundException.class, () -> walletService.transfer(userId, senderWalletId, amount, recipientWalletId));
+        assertThrows(WalletNotFoundException.class, () -> walletService.transfer(userId, senderWalletId, amount, recipientWalletId, amount));
+        assertTrue(senderWallet.checkBalance(1000L));
     }
 
     @Test
@@ -223,17 +298,30 @@ public class WalletServiceTest {
         final Long senderWalletId = 1L;
         final Long recipientWalletId = 2L;
         final User sender = new User(userId, "senderUsername", "password");
-        final Wallet senderWallet = new Wallet(1000.0, sender, Currency.INR);
-        final Wallet recipientWallet = new Wallet(500.0, new User(2L, "recipientUsername", "password"), Currency.INR);
-        final double amount = 100.0;
-        final MoneyDto money = new MoneyDto("INR", amount);
-        when(walletRepository.findById(senderWalletId)).thenReturn(Optional.of(senderWallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(sender));
-        when(walletRepository.findById(recipientWalletId)).thenReturn(Optional.of(recipientWallet));
-        when(userRepository.findByWallet(recipientWallet)).thenReturn(Optional.empty());
-        when(moneyConversionService.convertMoney(money, "INR")).thenReturn(money);
+        final Wallet senderWallet = wallet(senderWalletId, 1000L, sender, Currency.INR);
+        final Wallet recipientWallet = wallet(recipientWalletId, 500L, null, Currency.INR);
+        final long amount = 100L;
+        when(walletRepository.findOwnersByIdIn(List.of(senderWalletId, recipientWalletId))).thenReturn(owners(senderWallet, recipientWallet));
+        when(walletRepository.findAllByIdForUpdate(List.of(senderWalletId, recipientWalletId))).thenReturn(List.of(senderWallet, recipientWallet));
+
+        assertThrows(UserNotFoundException.class, () -> walletService.transfer(userId, senderWalletId, amount, recipientWalletId, amount));
+    }
 
-        assertThrows(UserNotFoundException.class, () -> walletService.transfer(userId, senderWalletId, amount, recipientWalletId));
+    @Test
+    public void testTransferThrowsUnauthorizedAccessExceptionWhenSenderWalletBelongsToAnotherUser() {
+        final Long userId = 1L;
+        final Long senderWalletId = 1L;
+        final Long recipientWalletId = 2L;
+        final User user = new User(userId, "username", "password");
+        final User owner = new User(3L, "ownerUsername", "password");
+        final Wallet senderWallet = wallet(senderWalletId, 1000L, owner, Currency.INR);
+        final Wallet recipientWallet = wallet(recipientWalletId, 500L, user, Currency.INR);
+        when(walletRepository.findOwnersByIdIn(List.of(senderWalletId, recipientWalletId))).thenReturn(owners(senderWallet, recipientWallet));
+        when(walletRepository.findAllByIdForUpdate(List.of(senderWalletId, recipientWalletId))).thenReturn(List.of(senderWallet, recipientWallet));
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        assertThrows(UnauthorizedAccessException.class, () -> walletService.transfer(userId, senderWalletId, 100L, recipientWalletId, 100L));
+        verifyNoInteractions(moneyConversionService);
     }
 
     @Test
@@ -244,23 +332,19 @@ public class WalletServiceTest {
         final Long recipientWalletId = 2L;
         final User sender = new User(userId, "senderUsername", "password");
         final User recipient = new User(recipientUserId, "recipientUsername", "password");
-        final Wallet senderWallet = new Wallet(1000.0, sender, Currency.INR);
-        final Wallet recipientWallet = new Wallet(500.0, recipient, Currency.INR);
-        final double amount = 100.0;
-        final MoneyDto money = new MoneyDto("INR", amount);
-        when(walletRepository.findById(senderWalletId)).thenReturn(Optional.of(senderWallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(sender));
-        when(walletRepository.findById(recipientWalletId)).thenReturn(Optional.of(recipientWallet));
-        when(userRepository.findByWallet(recipientWallet)).thenReturn(Optional.of(recipient));
-        when(userRepository.findById(recipientUserId)).thenReturn(Optional.of(recipient));
-        when(moneyConversionService.convertMoney(money, "INR")).thenReturn(money);
-
-        walletService.transfer(userId, senderWalletId, amount, recipientWalletId);
-
-        assertTrue(senderWallet.checkBalance(900.0));
-        assertTrue(recipientWallet.checkBalance(600.0));
-        verify(walletRepository).save(senderWallet);
-        verify(walletRepository).save(recipientWallet);
+        final Wallet senderWallet = wallet(senderWalletId, 1000L, sender, Currency.INR);
+        final Wallet recipientWallet = wallet(recipientWalletId, 500L, recipient, Currency.INR);
+        final long amount = 100L;
+        when(walletRepository.findOwnersByIdIn(List.of(senderWalletId, recipientWalletId))).thenReturn(owners(senderWallet, recipientWallet));
+        when(walletRepository.findAllByIdForUpdate(List.of(senderWalletId, recipientWalletId))).thenReturn(List.of(senderWallet, recipientWallet));
+
+        walletService.transfer(userId, senderWalletId, amount, recipientWalletId, amount);
+
+        assertTrue(senderWallet.checkBalance(900L));
+        assertTrue(recipientWallet.checkBalance(600L));
+        verify(walletRepository, never()).debit(any(), anyLong());
+        verify(walletRepository, never()).credit(any(), anyLong());
+        verify(walletBalanceCache).evictAfterCommit(userId, recipientUserId);
     }
 
     @Test
@@ -271,25 +355,134 @@ public class WalletServiceTest {
         final Long recipientWalletId = 2L;
         final User sender = new User(userId, "senderUsername", "password");
         final User recipient = new User(recipientUserId, "recipientUsername", "password");
-        final Wallet senderWallet = new Wallet(1000.0, sender, Currency.USD);
-        final Wallet recipientWallet = new Wallet(500.0, recipient, Currency.INR);
-        final double amount = 100.0;
-        final MoneyDto money = new MoneyDto("USD", amount);
-        final MoneyDto convertedMoney = new MoneyDto("INR", 8300.0);
-        when(walletRepository.findById(senderWalletId)).thenReturn(Optional.of(senderWallet));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(sender));
-        when(moneyConversionService.convertMoney(money, "USD")).thenReturn(money);
+        final Wallet senderWallet = wallet(senderWalletId, 1000L, sender, Currency.USD);
+        final Wallet recipientWallet = wallet(recipientWalletId, 500L, recipient, Currency.INR);
+        final long amount = 100L;
+        when(walletRepository.findOwnersByIdIn(List.of(senderWalletId, recipientWalletId))).thenReturn(owners(senderWallet, recipientWallet));
+        when(walletRepository.findAllByIdForUpdate(List.of(senderWalletId, recipientWalletId))).thenReturn(List.of(senderWallet, recipientWallet));
+
+        walletService.transfer(userId, senderWalletId, amount, recipientWalletId, 8300L);
+
+        assertTrue(senderWallet.checkBalance(900L));
+        assertTrue(recipientWallet.checkBalance(8800L));
+        ArgumentCaptor<List<LedgerEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryRepository).saveAll(entries.capture());
+        LedgerEntry debit = entries.getValue().get(0);
+        LedgerEntry credit = entries.getValue().get(1);
+        assertEquals(LedgerEntryType.DEBIT, debit.getEntryType());
+        assertEquals(senderWalletId, debit.getWalletId());
+        assertEquals(100L, debit.getAmount());
+        assertEquals(Currency.USD, debit.getCurrency());
+        assertEquals(recipientWalletId, debit.getCounterpartyWalletId());
+        assertEquals(LedgerEntryType.CREDIT, credit.getEntryType());
+        assertEquals(recipientWalletId, credit.getWalletId());
+        assertEquals(8300L, credit.getAmount());
+        assertEquals(Currency.INR, credit.getCurrency());
+        assertEquals(senderWalletId, credit.getCounterpartyWalletId());
+    }
+
+    @Test
+    public void testTransferCreditsTheConvertedAmountWithoutConverting() {
+        final Long userId = 1L;
+        final Long senderWalletId = 1L;
+        final Long recipientWalletId = 2L;
+        final Wallet senderWallet = wallet(senderWalletId, 1000L, new User(userId, "senderUsername", "password"), Currency.USD);
+        final Wallet recipientWallet = wallet(recipientWalletId, 500L, new User(2L, "recipientUsername", "password"), Currency.INR);
+        when(walletRepository.findOwnersByIdIn(List.of(senderWalletId, recipientWalletId))).thenReturn(owners(senderWallet, recipientWallet));
+        when(walletRepository.findAllByIdForUpdate(List.of(senderWalletId, recipientWalletId))).thenReturn(List.of(senderWallet, recipientWallet));
+
+        walletService.transfer(userId, senderWalletId, 100L, recipientWalletId, 8300L);
+
+        assertTrue(recipientWallet.checkBalance(8800L));
+        verifyNoInteractions(moneyConversionService);
+    }
+
+    @Test
+    public void testTransferThrowsInsufficientFundsExceptionAndLeavesRecipientUntouched() {
+        final Long userId = 1L;
+        final Long senderWalletId = 1L;
+        final Long recipientWalletId = 2L;
+        final User sender = new User(userId, "senderUsername", "password");
+        final Wallet senderWallet = wallet(senderWalletId, 50L, sender, Currency.INR);
+        final Wallet recipientWallet = wallet(recipientWalletId, 500L, new User(2L, "recipientUsername", "password"), Currency.INR);
+        when(walletRepository.findOwnersByIdIn(List.of(senderWalletId, recipientWalletId))).thenReturn(owners(senderWallet, recipientWallet));
+        when(walletRepository.findAllByIdForUpdate(List.of(senderWalletId, recipientWalletId))).thenReturn(List.of(senderWallet, recipientWallet));
+
+        assertThrows(InsufficientFundsException.class, () -> walletService.transfer(userId, senderWalletId, 100L, recipientWalletId, 100L));
+        assertTrue(recipientWallet.checkBalance(500L));
+    }
+
+    @Test
+    public void testDepositCreditsAShardWhenWalletIsSharded() {
+        final Long userId = 1L;
+        final Long walletId = 1L;
+        final User user = new User("username", "password");
+        final Wallet wallet = wallet(walletId, 0L, user, Currency.INR);
+        wallet.enableSharding(4);
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.of(wallet));
+        when(moneyConversionService.convert(Currency.INR, Currency.INR, 100L)).thenReturn(100L);
+
+        walletService.deposit(userId, walletId, Currency.INR, 100L);
+
+        verify(walletShardingService).credit(wallet, 100L);
+        verify(walletRepository, never()).credit(any(), anyLong());
+    }
+
+    @Test
+    public void testWithdrawSweepsShardsIntoWalletBalanceWhenWalletBalanceIsShort() {
+        final Long userId = 1L;
+        final Long walletId = 1L;
+        final User user = new User("username", "password");
+        final Wallet wallet = wallet(walletId, 10L, user, Currency.INR);
+        wallet.enableSharding(4);
+        when(walletRepository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.of(wallet));
+        when(moneyConversionService.convert(Currency.INR, Currency.INR, 100L)).thenReturn(100L);
+        when(walletRepository.debit(walletId, 100L)).thenReturn(0, 1);
+        when(walletShardingService.drainShards(walletId)).thenReturn(250L);
+
+        walletService.withdraw(userId, walletId, Currency.INR, 100L);
+
+        verify(walletRepository).findAllByIdForUpdate(List.of(walletId));
+        verify(walletRepository).credit(walletId, 250L);
+        verify(walletRepository, times(2)).debit(walletId, 100L);
+    }
+
+    @Test
+    public void testTransferLocksOnlySenderAndCreditsAShardWhenRecipientIsSharded() {
+        final Long userId = 1L;
+        final Long senderWalletId = 1L;
+        final Long recipientWalletId = 2L;
+        final User sender = new User(userId, "senderUsername", "password");
+        final Wallet senderWallet = wallet(senderWalletId, 1000L, sender, Currency.INR);
+        final Wallet recipientWallet = wallet(recipientWalletId, 0L, new User(2L, "merchant", "password"), Currency.INR);
+        recipientWallet.enableSharding(8);
+        when(walletShardingService.isSharded(recipientWalletId)).thenReturn(true);
+        when(walletRepository.findOwnersByIdIn(List.of(senderWalletId, recipientWalletId))).thenReturn(owners(senderWallet, recipientWallet));
+        when(walletRepository.findAllByIdForUpdate(List.of(senderWalletId))).thenReturn(List.of(senderWallet));
         when(walletRepository.findById(recipientWalletId)).thenReturn(Optional.of(recipientWallet));
-        when(userRepository.findByWallet(recipientWallet)).thenReturn(Optional.of(recipient));
-        when(userRepository.findById(recipientUserId)).thenReturn(Optional.of(recipient));
-        when(moneyConversionService.convertMoney(money, "INR")).thenReturn(convertedMoney);
 
-        walletService.transfer(userId, senderWalletId, amount, recipientWalletId);
+        walletService.transfer(userId, senderWalletId, 100L, recipientWalletId, 100L);
 
-        assertTrue(senderWallet.checkBalance(900.0));
-        assertTrue(recipientWallet.checkBalance(8800.0));
-        verify(walletRepository).save(senderWallet);
-        verify(walletRepository).save(recipientWallet);
+        assertTrue(senderWallet.checkBalance(900L));
+        assertTrue(recipientWallet.checkBalance(0L));
+        verify(walletShardingService).credit(recipientWallet, 100L);
+    }
+
+    @Test
+    public void getWalletsAddsShardBalancesToShardedWallets() {
+        Long userId = 1L;
+        User user = new User("username", "password");
+        Wallet plain = wallet(1L, 1000L, user, Currency.INR);
+        Wallet sharded = wallet(2L, 50L, user, Currency.INR);
+        sharded.enableSharding(4);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(walletRepository.findAllByUser(user)).thenReturn(List.of(plain, sharded));
+        when(walletShardingService.shardBalances(List.of(2L))).thenReturn(Map.of(2L, 450L));
+
+        List<WalletResponseDto> result = walletService.getWallets(userId);
+
+        assertEquals(1000L, result.get(0).getBalance());
+        assertEquals(500L, result.get(1).getBalance());
     }
 
     @Test
@@ -302,6 +495,7 @@ public class WalletServiceTest {
         walletService.createWallet(userId, walletRequestDto);
 
         verify(walletRepository).save(any(Wallet.class));
+        verify(walletBalanceCache).evictAfterCommit(userId);
     }
 
     @Test
@@ -318,8 +512,8 @@ public class WalletServiceTest {
         Long userId = 1L;
         User user = new User("username", "password");
         List<Wallet> wallets = List.of(
-                new Wallet(1000.0, user, Currency.INR),
-                new Wallet(2000.0, user, Currency.USD)
+                new Wallet(1000L, user, Currency.INR),
+                new Wallet(2000L, user, Currency.USD)
         );
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(walletRepository.findAllByUser(user)).thenReturn(wallets);
@@ -336,4 +530,26 @@ public class WalletServiceTest {
 
         assertThrows(UserNotFoundException.class, () -> walletService.getWallets(userId));
     }
-}
\ No newline at end of file
+
+    private static Wallet wallet(Long id, long balance, User user, Currency currency) {
+        Wallet wallet = new Wallet(balance, user, currency);
+        ReflectionTestUtils.setField(wallet, "id", id);
+        return wallet;
+    }
+
+    private static List<WalletOwnerView> owners(Wallet... wallets) {
+        return Arrays.stream(wallets).map(wallet -> (WalletOwnerView) new WalletOwnerView() {
+            public Long getId() {
+                return wallet.getId();
+            }
+
+            public Long getUserId() {
+                return wallet.getUser() == null ? null : wallet.getUser().getId();
+            }
+
+            public Currency getCurrency() {
+                return wallet.getCurrency();
+            }
+        }).toList();
+    }
+}
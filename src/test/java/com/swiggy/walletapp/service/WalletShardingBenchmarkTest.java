@@ -0,0 +1,92 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.entity.User;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.repository.UserRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletShardingBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int TRANSFERS_PER_THREAD = 200;
+
+    @Autowired
+    private WalletService walletService;
+    @Autowired
+    private WalletShardingService walletShardingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    void inboundTransferThroughputForAHotRecipient() throws Exception {
+        double unsharded = run("unsharded", false);
+        double sharded = run("sharded", true);
+
+        System.out.printf("sharded/unsharded throughput: %.2fx%n", sharded / unsharded);
+    }
+
+    private double run(String mode, boolean shard) throws Exception {
+        User merchant = userRepository.save(new User("benchmark-merchant-" + mode, "password"));
+        Wallet merchantWallet = walletRepository.save(new Wallet(merchant, Currency.INR));
+        if (shard) {
+            walletShardingService.enableSharding(merchantWallet.getId());
+        }
+        List<User> senders = new ArrayList<>();
+        List<Wallet> senderWallets = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User sender = userRepository.save(new User("benchmark-sender-" + mode + "-" + i, "password"));
+            senders.add(sender);
+            senderWallets.add(walletRepository.save(new Wallet(1_000_000L, sender, Currency.INR)));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            User sender = senders.get(thread);
+            Wallet senderWallet = senderWallets.get(thread);
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    walletService.transfer(sender.getId(), senderWallet.getId(), 1L, merchantWallet.getId(), 1L);
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedMillis = Math.max(Duration.ofNanos(System.nanoTime() - begin).toMillis(), 1);
+        executor.shutdown();
+
+        int transfers = THREADS * TRANSFERS_PER_THREAD;
+        double throughput = transfers * 1000.0 / elapsedMillis;
+        System.out.printf("%s: %d transfers into one wallet in %d ms (%.0f/s)%n", mode, transfers, elapsedMillis, throughput);
+        assertEquals(transfers, walletService.getWallets(merchant.getId()).get(0).getBalance());
+        return throughput;
+    }
+}
@@ -0,0 +1,152 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.config.WalletProperties;
+import com.swiggy.walletapp.entity.User;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.entity.WalletBalanceShard;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.exception.WalletNotFoundException;
+import com.swiggy.walletapp.repository.WalletBalanceShardRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class WalletShardingServiceTest {
+
+    private WalletRepository walletRepository;
+    private WalletBalanceShardRepository walletBalanceShardRepository;
+    private WalletProperties walletProperties;
+    private WalletShardingService walletShardingService;
+
+    @BeforeEach
+    void setUp() {
+        walletRepository = mock(WalletRepository.class);
+        walletBalanceShardRepository = mock(WalletBalanceShardRepository.class);
+        walletProperties = new WalletProperties();
+        walletProperties.getSharding().setShards(4);
+        walletShardingService = new WalletShardingService(walletRepository, walletBalanceShardRepository, walletProperties,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @Test
+    void isShardedLooksUpTheShardCountOnceAndCachesIt() {
+        when(walletRepository.findShardCountById(1L)).thenReturn(Optional.of(8));
+
+        assertTrue(walletShardingService.isSharded(1L));
+        assertTrue(walletShardingService.isSharded(1L));
+
+        verify(walletRepository, times(1)).findShardCountById(1L);
+    }
+
+    @Test
+    void isShardedRereadsTheShardCountOnceTheEntryExpires() {
+        walletProperties.getSharding().setShardCountTtl(Duration.ZERO);
+        walletShardingService = new WalletShardingService(walletRepository, walletBalanceShardRepository, walletProperties,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        when(walletRepository.findShardCountById(1L)).thenReturn(Optional.of(8), Optional.of(0));
+
+        assertTrue(walletShardingService.isSharded(1L));
+        assertFalse(walletShardingService.isSharded(1L));
+    }
+
+    @Test
+    void creditGoesToTheWalletRowWhenTheWalletIsNoLongerSharded() {
+        Wallet wallet = wallet(1L, 0L);
+
+        walletShardingService.credit(wallet, 25L);
+
+        verify(walletRepository).credit(1L, 25L);
+        verifyNoInteractions(walletBalanceShardRepository);
+    }
+
+    @Test
+    void creditTargetsAShardWithinTheWalletsShardCount() {
+        Wallet wallet = wallet(1L, 0L);
+        wallet.enableSharding(4);
+        when(walletBalanceShardRepository.credit(eq(1L), anyInt(), eq(25L))).thenReturn(1);
+
+        for (int i = 0; i < 50; i++) {
+            walletShardingService.credit(wallet, 25L);
+        }
+
+        verify(walletBalanceShardRepository, times(50)).credit(eq(1L), intThat(shard -> shard >= 0 && shard < 4), eq(25L));
+        verify(walletRepository, never()).credit(any(), anyLong());
+    }
+
+    @Test
+    void creditFallsBackToTheWalletRowWhenTheShardRowIsMissing() {
+        Wallet wallet = wallet(1L, 0L);
+        wallet.enableSharding(4);
+
+        walletShardingService.credit(wallet, 25L);
+
+        verify(walletRepository).credit(1L, 25L);
+    }
+
+    @Test
+    void drainShardsReturnsTheShardTotalAndClearsThem() {
+        when(walletBalanceShardRepository.findAllByWalletIdForUpdate(1L)).thenReturn(List.of(shard(1L, 0, 3000L), shard(1L, 1, 1250L)));
+
+        assertEquals(4250L, walletShardingService.drainShards(1L));
+        verify(walletBalanceShardRepository).clearBalances(1L);
+    }
+
+    @Test
+    void enableShardingCreatesShardRowsAndMarksTheWallet() {
+        Wallet wallet = wallet(1L, 500L);
+        when(walletRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(wallet));
+
+        walletShardingService.enableSharding(1L);
+
+        assertEquals(4, wallet.getShardCount());
+        assertTrue(wallet.checkBalance(500L));
+        verify(walletBalanceShardRepository).saveAll(argThat(shards -> ((List<?>) shards).size() == 4));
+        assertTrue(walletShardingService.isSharded(1L));
+        verify(walletRepository, never()).findShardCountById(any());
+    }
+
+    @Test
+    void enableShardingThrowsWalletNotFoundExceptionForUnknownWallet() {
+        when(walletRepository.findAllByIdForUpdate(List.of(9L))).thenReturn(List.of());
+
+        assertThrows(WalletNotFoundException.class, () -> walletShardingService.enableSharding(9L));
+    }
+
+    @Test
+    void disableShardingFoldsShardBalancesBackIntoTheWallet() {
+        Wallet wallet = wallet(1L, 100L);
+        wallet.enableSharding(4);
+        when(walletRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(wallet));
+        when(walletBalanceShardRepository.findAllByWalletIdForUpdate(1L)).thenReturn(List.of(shard(1L, 0, 40L), shard(1L, 3, 60L)));
+
+        walletShardingService.disableSharding(1L);
+
+        assertTrue(wallet.checkBalance(200L));
+        assertFalse(wallet.isSharded());
+        verify(walletBalanceShardRepository).deleteAllByWalletId(1L);
+        assertFalse(walletShardingService.isSharded(1L));
+    }
+
+    private static Wallet wallet(Long id, long balance) {
+        Wallet wallet = new Wallet(balance, new User(1L, "merchant", "password"), Currency.INR);
+        ReflectionTestUtils.setField(wallet, "id", id);
+        return wallet;
+    }
+
+    private static WalletBalanceShard shard(Long walletId, int shardIndex, long balance) {
+        WalletBalanceShard shard = new WalletBalanceShard(walletId, shardIndex);
+        ReflectionTestUtils.setField(shard, "balance", balance);
+        return shard;
+    }
+}
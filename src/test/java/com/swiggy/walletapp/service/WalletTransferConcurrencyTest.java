@@ -0,0 +1,131 @@
+package com.swiggy.walletapp.service;
+
+import com.swiggy.walletapp.entity.LedgerEntry;
+import com.swiggy.walletapp.entity.User;
+import com.swiggy.walletapp.entity.Wallet;
+import com.swiggy.walletapp.enums.Currency;
+import com.swiggy.walletapp.enums.LedgerEntryType;
+import com.swiggy.walletapp.repository.LedgerEntryRepository;
+import com.swiggy.walletapp.repository.UserRepository;
+import com.swiggy.walletapp.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletTransferConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 100;
+    private static final int SHARDED_TRANSFERS_PER_THREAD = 25;
+    private static final long OPENING_BALANCE = 1_000_000L;
+
+    @Autowired
+    private WalletService walletService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private WalletShardingService walletShardingService;
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Test
+    void opposingTransfersBetweenTheSameWalletsNeverDeadlock() throws Exception {
+        User alice = userRepository.save(new User("stress-alice", "password"));
+        User bob = userRepository.save(new User("stress-bob", "password"));
+        Wallet aliceWallet = walletRepository.save(new Wallet(OPENING_BALANCE, alice, Currency.INR));
+        Wallet bobWallet = walletRepository.save(new Wallet(OPENING_BALANCE, bob, Currency.INR));
+
+        Map<String, Integer> failures = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            boolean aliceSends = thread % 2 == 0;
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    try {
+                        if (aliceSends) {
+                            walletService.transfer(alice.getId(), aliceWallet.getId(), 1L, bobWallet.getId(), 1L);
+                        } else {
+                            walletService.transfer(bob.getId(), bobWallet.getId(), 2L, aliceWallet.getId(), 2L);
+                        }
+                    } catch (RuntimeException e) {
+                        failures.merge(e.getClass().getSimpleName(), 1, Integer::sum);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        int transfersEachWay = THREADS / 2 * TRANSFERS_PER_THREAD;
+        assertTrue(failures.isEmpty(), "Transfers aborted: " + failures);
+        assertEquals(OPENING_BALANCE - transfersEachWay + 2L * transfersEachWay, walletRepository.findById(aliceWallet.getId()).orElseThrow().getBalance());
+        assertEquals(OPENING_BALANCE + transfersEachWay - 2L * transfersEachWay, walletRepository.findById(bobWallet.getId()).orElseThrow().getBalance());
+        List<LedgerEntry> aliceEntries = ledgerEntryRepository.findAll().stream()
+                .filter(entry -> entry.getWalletId().equals(aliceWallet.getId()))
+                .toList();
+        assertEquals(2 * transfersEachWay, aliceEntries.size());
+        assertEquals(walletRepository.findById(aliceWallet.getId()).orElseThrow().getBalance() - OPENING_BALANCE, aliceEntries.stream()
+                .mapToLong(entry -> entry.getEntryType() == LedgerEntryType.CREDIT ? entry.getAmount() : -entry.getAmount())
+                .sum());
+    }
+
+    @Test
+    void parallelTransfersIntoAShardedWalletReconcileWithRebalancingWithdrawals() throws Exception {
+        User merchant = userRepository.save(new User("stress-merchant", "password"));
+        Wallet merchantWallet = walletRepository.save(new Wallet(merchant, Currency.INR));
+        walletShardingService.enableSharding(merchantWallet.getId());
+        List<User> senders = new ArrayList<>();
+        List<Wallet> senderWallets = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User sender = userRepository.save(new User("stress-sender-" + i, "password"));
+            senders.add(sender);
+            senderWallets.add(walletRepository.save(new Wallet(1000L, sender, Currency.INR)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            User sender = senders.get(thread);
+            Wallet senderWallet = senderWallets.get(thread);
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < SHARDED_TRANSFERS_PER_THREAD; i++) {
+                    walletService.transfer(sender.getId(), senderWallet.getId(), 1L, merchantWallet.getId(), 1L);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        walletService.withdraw(merchant.getId(), merchantWallet.getId(), Currency.INR, 150L);
+
+        assertEquals(THREADS * SHARDED_TRANSFERS_PER_THREAD - 150L, walletService.getWallets(merchant.getId()).get(0).getBalance());
+        assertTrue(walletRepository.findById(merchantWallet.getId()).orElseThrow().isSharded());
+    }
+}